@@ -0,0 +1,163 @@
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+import javax.swing.SwingUtilities;
+
+// The game code exercised by the benchmarks in `slider.benchmarks`
+//
+// JMH can't generate benchmarks for classes in the default package, where the game lives,
+// and classes in a named package can't refer to default package classes.
+// so each benchmark loads its fixture from here by name (see `slider.benchmarks.Fixtures`)
+// and calls it through a `java.util.function` interface, a single monomorphic (inlined) call.
+//
+public class BenchmarkFixtures {
+    private BenchmarkFixtures() {}
+
+    // makes `batch` moves per call on a shuffled `size` x `size` board, returning the moves counter
+    //
+    // `view` is `engine` for the headless engine alone, or `buttons` / `painted`
+    // for the engine observed by a `GamePanel` of that renderer (not laid out, without a display)
+    //
+    // a panel is built, and its moves made, on the event dispatch thread like in the game, its own
+    // background shuffle being cancelled so it can't replace the board mid-run. the moves are made in
+    // batches so the hand-off to the event dispatch thread is spread over many of them
+    //
+    public static IntSupplier moves(String view, int size, int batch) throws Exception {
+        if (view.equals("engine")) {
+            GameEngine engine = new GameEngine(size, size);
+            engine.newGame(PuzzleGenerator.Mode.PERMUTATION, new SplittableRandom(1));
+
+            return walk(engine, batch);
+        }
+        GameEngine[] engine = new GameEngine[1];
+        Exception[] failure = new Exception[1];
+
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                App app = new App(size, size);
+                app.renderer = GamePanel.Renderer.valueOf(view.toUpperCase());
+
+                GamePanel panel = new GamePanel(app);
+                panel.cancelShuffle();
+                engine[0] = panel.getEngine();
+                engine[0].newGame(PuzzleGenerator.Mode.PERMUTATION, new SplittableRandom(1));
+            } catch (Exception err) {
+                failure[0] = err;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        IntSupplier walk = walk(engine[0], batch);
+        int[] moves = new int[1];
+
+        return () -> {
+            try {
+                SwingUtilities.invokeAndWait(() -> moves[0] = walk.getAsInt());
+            } catch (InterruptedException | InvocationTargetException err) {
+                throw new IllegalStateException(err);
+            }
+            return moves[0];
+        };
+    }
+
+    // makes `batch` moves of `engine` per call, walking the blank around without ever undoing
+    // the previous move, and returns the moves counter
+    //
+    private static IntSupplier walk(GameEngine engine, int batch) {
+        Board board = engine.getBoard();
+        int[] previous = { -1 };
+
+        return () -> {
+            for (int k = 0; k < batch; k++) {
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    int next = (previous[0] + 1 + dir) & 3;
+
+                    if (previous[0] != -1 && next == (previous[0] ^ 1) || !board.canMove(next)) {
+                        continue;
+                    }
+                    engine.move(next);
+                    previous[0] = next;
+                    break;
+                }
+            }
+            return engine.getMoves();
+        };
+    }
+
+    // shuffles a `size` x `size` board with `mode` per call
+    //
+    public static Runnable shuffle(int size, String mode) {
+        Board board = new Board(size, size);
+        PuzzleGenerator.Mode generatorMode = PuzzleGenerator.Mode.valueOf(mode);
+        SplittableRandom random = new SplittableRandom(1);
+
+        return () -> PuzzleGenerator.generate(board, generatorMode, random);
+    }
+
+    // the original win check: comparing the whole `size` x `size` matrix to the solved one
+    // on a board one move away from solved
+    //
+    public static BooleanSupplier deepEqualsWinCheck(int size) {
+        Board board = nearlySolved(size);
+        Integer[][] matrix = new Integer[size][size];
+        Integer[][] solved = new Integer[size][size];
+
+        for (int cell = 0; cell < board.size(); cell++) {
+            matrix[cell / size][cell % size] = board.get(cell);
+            solved[cell / size][cell % size] = board.goalTile(cell);
+        }
+        return () -> Arrays.deepEquals(matrix, solved);
+    }
+
+    // the incremental win check of `Board` on the same board as `deepEqualsWinCheck`
+    //
+    public static BooleanSupplier boardWinCheck(int size) {
+        Board board = nearlySolved(size);
+
+        return board::isSolved;
+    }
+
+    private static Board nearlySolved(int size) {
+        Board board = new Board(size, size);
+        board.move(Board.UP);
+        return board;
+    }
+
+    // fits the font of a 2 digit label to a `cell` x `cell` tile,
+    // searching for the size every call (`cached` false) or through the font cache
+    //
+    public static IntSupplier fitFont(int cell, boolean cached) {
+        if (cached) {
+            return () -> ButtonListener.fitFont(2, cell, cell).getSize();
+        }
+        return () -> ButtonListener.fitFont("88", cell, cell).getSize();
+    }
+
+    // solves a fixed board with `solver` per call, returning the solution's length:
+    // `ida` optimally solves a `size` x `size` board `walk` random moves from solved,
+    // `ida-table` does the same pruning transpositions through a `TranspositionTable`,
+    // `reduction` solves a shuffled `size` x `size` board line by line
+    //
+    public static IntSupplier solve(String solver, int size, int walk) {
+        Board board = new Board(size, size);
+        Solver chosen;
+
+        if (solver.startsWith("ida")) {
+            PuzzleGenerator.randomWalk(board, walk, new SplittableRandom(7));
+            IdaStarSolver ida = new IdaStarSolver();
+
+            if (solver.equals("ida-table")) {
+                ida.setTranspositionTable(new TranspositionTable(1 << 22));
+            }
+            chosen = ida;
+        } else {
+            board.setTiles(PuzzleGenerator.generate(size, size, PuzzleGenerator.Mode.PERMUTATION, 7, 0));
+            chosen = new ReductionSolver();
+        }
+        return () -> chosen.solve(board).length;
+    }
+}
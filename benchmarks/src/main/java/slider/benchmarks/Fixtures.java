@@ -0,0 +1,31 @@
+package slider.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Loads the game fixtures of `BenchmarkFixtures` (in the default package) by name
+//
+final class Fixtures {
+    private Fixtures() {}
+
+    // calls the static `BenchmarkFixtures` factory `name` with `args`
+    // (of which the types are the primitive types of the boxed values)
+    //
+    @SuppressWarnings("unchecked")
+    static <T> T get(String name, Object... args) throws Exception {
+        Class<?>[] types = new Class<?>[args.length];
+
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i] instanceof Integer ? int.class
+                : args[i] instanceof Boolean ? boolean.class
+                : args[i].getClass();
+        }
+        Method factory = Class.forName("BenchmarkFixtures").getMethod(name, types);
+
+        try {
+            return (T) factory.invoke(null, args);
+        } catch (InvocationTargetException err) {
+            throw err.getCause() instanceof Exception ? (Exception) err.getCause() : err;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package slider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cost of fitting a tile's font: the binary search of `ButtonListener` against a cache hit
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FontFitBenchmark {
+    @Param({ "20", "60", "200" })
+    public int cell;
+
+    private IntSupplier search;
+    private IntSupplier cached;
+
+    @Setup
+    public void setup() throws Exception {
+        search = Fixtures.get("fitFont", cell, false);
+        cached = Fixtures.get("fitFont", cell, true);
+    }
+
+    @Benchmark
+    public int search() {
+        return search.getAsInt();
+    }
+
+    @Benchmark
+    public int cached() {
+        return cached.getAsInt();
+    }
+}
@@ -0,0 +1,40 @@
+package slider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cost of a single move: in the headless engine alone and with a `GamePanel` updating its tiles
+//
+// the moves are made `MOVES_PER_CALL` at a time (on the event dispatch thread for the panels),
+// and reported per move
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+    static final int MOVES_PER_CALL = 1000;
+
+    @Param({ "engine", "buttons", "painted" })
+    public String view;
+
+    @Param({ "4", "30" })
+    public int size;
+
+    private IntSupplier move;
+
+    @Setup
+    public void setup() throws Exception {
+        move = Fixtures.get("moves", view, size, MOVES_PER_CALL);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES_PER_CALL)
+    public int move() {
+        return move.getAsInt();
+    }
+}
@@ -0,0 +1,33 @@
+package slider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cost of shuffling a new board, by size and generator
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShuffleBenchmark {
+    @Param({ "2", "3", "4", "5", "10", "20", "30" })
+    public int size;
+
+    @Param({ "PERMUTATION", "RANDOM_WALK" })
+    public String mode;
+
+    private Runnable shuffle;
+
+    @Setup
+    public void setup() throws Exception {
+        shuffle = Fixtures.get("shuffle", size, mode);
+    }
+
+    @Benchmark
+    public void shuffle() {
+        shuffle.run();
+    }
+}
@@ -0,0 +1,57 @@
+package slider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cost of solving a fixed board: optimally with IDA* (without pattern databases, with and without
+// a transposition table) and line by line with the reduction solver
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    private IntSupplier idaStar3x3;
+    private IntSupplier idaStar4x4;
+    private IntSupplier idaStar4x4Table;
+    private IntSupplier reduction10x10;
+    private IntSupplier reduction30x30;
+
+    @Setup
+    public void setup() throws Exception {
+        idaStar3x3 = Fixtures.get("solve", "ida", 3, 1000);
+        idaStar4x4 = Fixtures.get("solve", "ida", 4, 60);
+        idaStar4x4Table = Fixtures.get("solve", "ida-table", 4, 60);
+        reduction10x10 = Fixtures.get("solve", "reduction", 10, 0);
+        reduction30x30 = Fixtures.get("solve", "reduction", 30, 0);
+    }
+
+    @Benchmark
+    public int idaStar3x3() {
+        return idaStar3x3.getAsInt();
+    }
+
+    @Benchmark
+    public int idaStar4x4() {
+        return idaStar4x4.getAsInt();
+    }
+
+    @Benchmark
+    public int idaStar4x4Table() {
+        return idaStar4x4Table.getAsInt();
+    }
+
+    @Benchmark
+    public int reduction10x10() {
+        return reduction10x10.getAsInt();
+    }
+
+    @Benchmark
+    public int reduction30x30() {
+        return reduction30x30.getAsInt();
+    }
+}
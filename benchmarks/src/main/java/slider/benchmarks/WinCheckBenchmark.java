@@ -0,0 +1,39 @@
+package slider.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.openjdk.jmh.annotations.*;
+
+// Cost of checking for a win after a move:
+// comparing the whole matrix with `Arrays.deepEquals` against the incremental count of `Board`
+//
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WinCheckBenchmark {
+    @Param({ "4", "30" })
+    public int size;
+
+    private BooleanSupplier deepEquals;
+    private BooleanSupplier board;
+
+    @Setup
+    public void setup() throws Exception {
+        deepEquals = Fixtures.get("deepEqualsWinCheck", size);
+        board = Fixtures.get("boardWinCheck", size);
+    }
+
+    @Benchmark
+    public boolean deepEquals() {
+        return deepEquals.getAsBoolean();
+    }
+
+    @Benchmark
+    public boolean board() {
+        return board.getAsBoolean();
+    }
+}
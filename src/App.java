@@ -1,14 +1,37 @@
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class App extends JPanel implements ActionListener {
-    private GamePanel gamePanel;
+    private final GamePanel gamePanel;
     // number of rows and columns of the game board grid
     protected int rows;
     protected int cols;
+    // the strategy used to shuffle new boards
+    // selectable with `-Dslider.generator=permutation|random_walk` (defaults to `permutation`)
+    protected PuzzleGenerator.Mode generatorMode = PuzzleGenerator.Mode.parse(
+        System.getProperty("slider.generator")
+    );
+    // the band of difficulty (optimal solution length, see `DifficultyRater`) of new boards, `null` for any
+    // selectable with `-Dslider.difficulty=<min>-<max>`, e.g. `45-50` on 4x4
+    // (boards too large to be rated are shuffled as usual)
+    protected int[] difficulty = DifficultyRater.parseBand(System.getProperty("slider.difficulty"));
+    // how the board's tiles are drawn
+    // selectable with `-Dslider.renderer=buttons|painted` (defaults to `buttons`)
+    protected GamePanel.Renderer renderer = GamePanel.Renderer.parse(
+        System.getProperty("slider.renderer")
+    );
+    // which tiles can be clicked, and whether a slide of several of them counts as one move
+    // selectable with `-Dslider.slides=off|tiles|one` (defaults to `off`, only the tiles beside the blank)
+    protected GamePanel.SlideMode slideMode = GamePanel.SlideMode.parse(
+        System.getProperty("slider.slides")
+    );
 
     protected JLabel movesLabel;
     // inputs for setting the number of rows and columns
@@ -17,9 +40,28 @@ public class App extends JPanel implements ActionListener {
     private JLabel colsLabel;
     private JTextField colsInput;
 
-    // help and restart buttons
+    // help, restart, hint, solve and history (replay, undo, redo) buttons
     private JButton help;
     private JButton restart;
+    private JButton hint;
+    private JButton solve;
+    private JButton replay;
+    private JButton undo;
+    private JButton redo;
+    // buttons saving the game to / loading a game from a file
+    private JButton save;
+    private JButton load;
+    // the file chooser shared by `save` and `load`, so it remembers the last directory
+    private JFileChooser fileChooser;
+
+    // pattern databases of the optimal solvers computing hints (`null` if there are none), reused between
+    // requests and reloaded when the dimensions change
+    private PatternHeuristic patterns;
+    private boolean patternsLoaded;
+    private int patternRows;
+    private int patternCols;
+    // the hint or solution being computed in the background, if any
+    private BackgroundTask<int[]> solving;
 
     // help screen components
     private JButton back;
@@ -29,9 +71,23 @@ public class App extends JPanel implements ActionListener {
     private static final int HEIGHT = 800;
 
     // size constraint constants (inclusive)
-    // i.e. maximum & minimum number of rows & columns allowed
-    private static final int MIN_DIMS = 2;
-    private static final int MAX_DIMS = 30;
+    // i.e. maximum & minimum number of rows & columns allowed (see `BoardValidator`)
+    private static final int MIN_DIMS = BoardValidator.MIN_DIMS;
+    private static final int MAX_DIMS = BoardValidator.MAX_DIMS;
+    // boards with more rows or columns than this are too large to show whole (or as buttons),
+    // they are painted at a fixed tile size within a viewport that follows the blank tile
+    private static final int LARGE_BOARD_DIMS = 30;
+    // largest board (in number of tiles) that can be solved on screen,
+    // the line by line solution of a 100x100 board is already over 3 million moves long
+    private static final int MAX_SOLVE_TILES = 100 * 100;
+    // largest board (in number of tiles) that hints are computed for without pattern databases,
+    // optimal solving of anything bigger than 4x4 can take far too long
+    // (those up to 4x4 build their databases on first use, larger ones up to 5x5 need them precomputed
+    // with `java -cp bin PatternDatabase <rows> <cols>`)
+    private static final int MAX_HINT_TILES = 16;
+
+    private static final Metrics.Timer SCREEN_REBUILDS = Metrics.timer("rebuild.screen");
+    private static final Metrics.Timer SOLVES = Metrics.timer("solve");
 
     // text colors
     private static final Color TITLE_COLOR = new Color(255, 255, 255);
@@ -101,6 +157,34 @@ public class App extends JPanel implements ActionListener {
         restart.setForeground(GamePanel.TEXT_COLOR);
         restart.setBackground(DANGER_BTN_COLOR);
 
+        hint = new JButton("Hint");
+        hint.setForeground(GamePanel.TEXT_COLOR);
+        hint.setBackground(SECONDARY_BTN_COLOR);
+
+        solve = new JButton("Solve");
+        solve.setForeground(GamePanel.TEXT_COLOR);
+        solve.setBackground(SECONDARY_BTN_COLOR);
+
+        replay = new JButton("Replay");
+        replay.setForeground(GamePanel.TEXT_COLOR);
+        replay.setBackground(SECONDARY_BTN_COLOR);
+
+        undo = new JButton("Undo");
+        undo.setForeground(GamePanel.TEXT_COLOR);
+        undo.setBackground(SECONDARY_BTN_COLOR);
+
+        redo = new JButton("Redo");
+        redo.setForeground(GamePanel.TEXT_COLOR);
+        redo.setBackground(SECONDARY_BTN_COLOR);
+
+        save = new JButton("Save");
+        save.setForeground(GamePanel.TEXT_COLOR);
+        save.setBackground(SECONDARY_BTN_COLOR);
+
+        load = new JButton("Load");
+        load.setForeground(GamePanel.TEXT_COLOR);
+        load.setBackground(SECONDARY_BTN_COLOR);
+
         rowsInput = new JTextField(5);
         colsInput = new JTextField(5);
 
@@ -117,6 +201,13 @@ public class App extends JPanel implements ActionListener {
             restart,
             colsLabel,
             colsInput,
+            hint,
+            solve,
+            replay,
+            undo,
+            redo,
+            save,
+            load,
         }) {
             setupComponentProperties(component);
             controls.add(component);
@@ -193,7 +284,7 @@ public class App extends JPanel implements ActionListener {
     // displaying a message box if they are
     //
     public boolean validateInput(int newSize) {
-        if (newSize < MIN_DIMS || newSize > MAX_DIMS) {
+        if (!BoardValidator.isValidDimension(newSize)) {
             // Shows a message box like javascript's `alert(...)` in the web:
             //
             // <https://stackoverflow.com/questions/7080205/popup-message-boxes>
@@ -210,31 +301,256 @@ public class App extends JPanel implements ActionListener {
         return true;
     }
 
+    // whether the current dimensions make a large board (see `LARGE_BOARD_DIMS`)
+    //
+    protected boolean isLargeBoard() {
+        return rows > LARGE_BOARD_DIMS || cols > LARGE_BOARD_DIMS;
+    }
+
+    // a new optimal solver for the current board's dimensions,
+    // or `null` when the board is too large to be solved optimally in reasonable time
+    //
+    // every background solve gets its own, as solvers aren't thread-safe
+    // (and a cancelled one may still be running for a moment)
+    //
+    // called from the background solves, as loading the pattern databases can mean building them
+    //
+    private synchronized IdaStarSolver getOptimalSolver(Board board) {
+        if (!patternsLoaded || patternRows != board.getRows() || patternCols != board.getCols()) {
+            patterns = null;
+            try {
+                patterns = PatternHeuristic.forBoard(board.getRows(), board.getCols());
+            } catch (IOException err) {
+                // falls back to the manhattan distance and linear conflicts alone
+            }
+            patternsLoaded = true;
+            patternRows = board.getRows();
+            patternCols = board.getCols();
+        }
+        return board.size() > MAX_HINT_TILES && patterns == null ? null : new IdaStarSolver(patterns);
+    }
+
+    // solves the current board optimally
+    // and displays the next move to make in place of the moves counter
+    //
+    private void showHint() {
+        Board board = gamePanel.getEngine().getBoard();
+
+        if (board.size() > MAX_HINT_TILES && PatternHeuristic.partition(board.getRows(), board.getCols()) == null) {
+            showHintsUnavailable();
+            return;
+        }
+        if (board.isSolved()) {
+            return;
+        }
+        Board snapshot = new Board(board);
+
+        movesLabel.setText("Hint: thinking...");
+        movesLabel.setForeground(LABEL_COLOR);
+
+        // no solution when the pattern databases of a larger board couldn't be loaded
+        startSolving(this::getOptimalSolver, snapshot, solution -> {
+            if (solution == null) {
+                movesLabel.setText("Moves: " + gamePanel.getEngine().getMoves());
+                showHintsUnavailable();
+                return;
+            }
+            int tile = snapshot.get(snapshot.neighbor(snapshot.getBlank(), solution[0]));
+
+            movesLabel.setText(String.format(
+                "Hint: move [%d] (%d moves left)", tile, solution.length
+            ));
+            movesLabel.setForeground(LABEL_COLOR);
+        });
+    }
+
+    private void showHintsUnavailable() {
+        JOptionPane.showInternalMessageDialog(
+            null,
+            String.format("Hints are only available for boards of up to %d tiles.", MAX_HINT_TILES)
+        );
+    }
+
+    // solves the current board, optimally when possible (see `getOptimalSolver`)
+    // or otherwise line by line, and replays the solution on the board
+    //
+    private void showSolution() {
+        Board board = gamePanel.getEngine().getBoard();
+
+        if (board.size() > MAX_SOLVE_TILES) {
+            JOptionPane.showInternalMessageDialog(
+                null,
+                String.format("Solving is only available for boards of up to %d tiles.", MAX_SOLVE_TILES)
+            );
+            return;
+        }
+        if (board.isSolved()) {
+            return;
+        }
+        movesLabel.setText("Solving...");
+        movesLabel.setForeground(LABEL_COLOR);
+
+        startSolving(snapshot -> {
+            IdaStarSolver optimal = getOptimalSolver(snapshot);
+            return optimal != null ? optimal : new ReductionSolver();
+        }, new Board(board), gamePanel::replay);
+    }
+
+    // solves `snapshot` (a copy of the current board) in the background with the solver `chooser` picks for it
+    // (also in the background), cancelling any solve still in progress, and hands the solution to `finished`
+    // (`null` when `chooser` has no solver)
+    //
+    // the moves counter tells when pattern databases are built first (see `PatternHeuristic.needsBuilding`)
+    //
+    // the solution is dropped if the board has changed by the time it is found
+    // (the moves that changed it having already shown the moves counter again)
+    //
+    private void startSolving(Function<Board, Solver> chooser, Board snapshot, Consumer<int[]> finished) {
+        cancelSolving();
+
+        solving = BackgroundTask.start(
+            progress -> {
+                if (PatternHeuristic.needsBuilding(snapshot.getRows(), snapshot.getCols())) {
+                    // reported as progress so that it is dropped once the solve is cancelled
+                    progress.accept(0);
+                }
+                Solver solver = chooser.apply(snapshot);
+                return solver == null ? null : runSolver(solver, snapshot);
+            },
+            percent -> {
+                movesLabel.setText("Building pattern databases (only once)...");
+                movesLabel.setForeground(LABEL_COLOR);
+            },
+            solution -> {
+                solving = null;
+
+                if (gamePanel.getEngine().getBoard().sameLayout(snapshot)) {
+                    finished.accept(solution);
+                }
+            },
+            err -> {
+                solving = null;
+                movesLabel.setText("Moves: " + gamePanel.getEngine().getMoves());
+                JOptionPane.showInternalMessageDialog(null, "Could not solve the board: " + err);
+            }
+        );
+    }
+
+    // stops the hint or solution being computed, if any
+    //
+    private void cancelSolving() {
+        if (solving != null) {
+            solving.cancel();
+            solving = null;
+        }
+    }
+
+    // solves `board` with `solver`, recording the time it took
+    //
+    private int[] runSolver(Solver solver, Board board) {
+        GameEvents.Solve event = new GameEvents.Solve();
+        event.begin();
+        long start = SOLVES.start();
+
+        int[] solution = solver.solve(board);
+
+        SOLVES.stop(start);
+        if (event.shouldCommit()) {
+            event.solver = solver.getClass().getSimpleName();
+            event.rows = board.getRows();
+            event.cols = board.getCols();
+            event.moves = solution == null ? -1 : solution.length;
+            event.commit();
+        }
+        return solution;
+    }
+
+    // the file chooser for saved games, created on first use
+    //
+    private JFileChooser getFileChooser() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+            fileChooser.setFileFilter(
+                new FileNameExtensionFilter("Saved games (*.slsv)", "slsv")
+            );
+        }
+        return fileChooser;
+    }
+
+    // saves the current game, along with its move history, to a file chosen by the user
+    //
+    private void saveGame() {
+        if (getFileChooser().showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new File(file.getPath() + ".slsv");
+        }
+        try {
+            GameFile.save(gamePanel.getEngine(), file.toPath(), true);
+        } catch (IOException err) {
+            JOptionPane.showInternalMessageDialog(null, "Could not save the game: " + err.getMessage());
+        }
+    }
+
+    // continues a game saved to a file chosen by the user
+    //
+    private void loadGame() {
+        if (getFileChooser().showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        GameFile file;
+        try {
+            file = GameFile.load(fileChooser.getSelectedFile().toPath());
+        } catch (IOException err) {
+            JOptionPane.showInternalMessageDialog(null, "Could not load the game: " + err.getMessage());
+            return;
+        }
+        if (!validateInput(file.getRows()) || !validateInput(file.getCols())) {
+            return;
+        }
+        rows = file.getRows();
+        cols = file.getCols();
+        rowsInput.setText(String.valueOf(rows));
+        colsInput.setText(String.valueOf(cols));
+
+        cancelSolving();
+        gamePanel.load(file);
+    }
+
     public void actionPerformed(ActionEvent event) {
         Object component = event.getSource();
 
+        // the board shown while a new one is being shuffled is about to be replaced
+        if (gamePanel.isShuffling() && (
+            component == hint || component == solve || component == replay
+            || component == undo || component == redo || component == save
+        )) {
+            return;
+        }
         if (
             component == restart
             || (component == rowsInput && !rowsInput.getText().isEmpty())
             || (component == colsInput && !colsInput.getText().isEmpty())
         ) {
+            int newRows = rows;
+            int newCols = cols;
             try {
                 String rawRows = rowsInput.getText();
                 String rawCols = colsInput.getText();
 
                 if (!rawRows.isEmpty() ) {
-                    int newRows = Integer.parseInt(rawRows);
+                    newRows = Integer.parseInt(rawRows);
                     if (!validateInput(newRows)) {
                         return;
                     }
-                    rows = newRows;
                 }
                 if (!rawCols.isEmpty() ) {
-                    int newCols = Integer.parseInt(rawCols);
+                    newCols = Integer.parseInt(rawCols);
                     if (!validateInput(newCols)) {
                         return;
                     }
-                    cols = newCols;
                 }
             } catch (NumberFormatException err) {
                 JOptionPane.showInternalMessageDialog(
@@ -242,100 +558,182 @@ public class App extends JPanel implements ActionListener {
                 );
                 return;
             }
-            remove(gamePanel);
+            // both dimensions change together, as the (background) shuffle reads them
+            rows = newRows;
+            cols = newCols;
 
-            movesLabel.setText("Moves: 0");
-            gamePanel = new GamePanel(this);
-            addGamePanel();
+            // the board is reset in place, reusing its tiles, rather than rebuilt
+            cancelSolving();
+            gamePanel.reset();
+            return;
 
         } else if (component == help) {
-            removeAll();
-
-            JLabel title = new JLabel("How to Play");
-            title.setFont(TITLE_FONT);
-            title.setForeground(GamePanel.TEXT_COLOR);
-            title.setHorizontalAlignment(JLabel.CENTER);
-
-            GridBagConstraints constraints = getDefaultConstraints();
-
-            constraints.gridy = 0;
-            add(title, constraints);
-
-            JTextPane description = new JTextPane();
-            description.setContentType("text/html");
-            description.setEditable(false);
-            description.setText(
-                String.join(
-                    System.lineSeparator(),
-                    "<html>",
-                    "    <div style=\"",
-                    String.format(
-                        "        color: rgb(%d, %d, %d);",
-                        LABEL_COLOR.getRed(),
-                        LABEL_COLOR.getGreen(),
-                        LABEL_COLOR.getRed()
-                    ),
-                    "        font-size: 20pt;",
-                    "        font-weight: 200;",
-                    "    \">",
-                    "        <pre>",
-                    "The goal of the game is to sort all the tiles in ascending order.",
-                    "",
-                    "The desired endgame layout is to have the top-left corner be a <b>[1]</b>",
-                    "and in <b>ascending</b> order all the way to the bottom-left which should be the <b>[largest number]</b>",
-                    "",
-                    "The dark gray tile represents the <b>empty</b> tile that its neighbors can swap to.",
-                    "Therefore, only the direct <b>neighbors</b> of that tile can be <b>clicked</b>",
-                    "and said tile will get <b>swapped</b> with the blank tile when <b>clicked</b>",
-                    "",
-                    "<b>Note:</b> All tiles that are in the <b>correct</b> position will be colored <b>green</b> instead",
-                    "        </pre>",
-                    "        <hr>",
-                    "        <pre>",
-                    "Click <b>[Restart]</b> to generate a random fresh board (and to update grid size values)",
-                    "",
-                    String.format(
-                        "Enter <b>[# Rows]</b> (number from %d to %d) to change the number of rows of the grid",
-                        MIN_DIMS, MAX_DIMS
-                    ),
-                    String.format(
-                        "Enter <b>[# Cols]</b> (number from %d to %d) to change number of columns of the grid",
-                        MIN_DIMS, MAX_DIMS
-                    ),
-                    "(By default the grid size is <b>4x4</b>)",
-                    "",
-                    "<i>* All generated puzzles are guaranteed solvable</i>",
-                    "",
-                    "<b>Have Fun!</b>",
-                    "",
-                    String.format(
-                        "[Running on Java v%s]",
-                        System.getProperty("java.version")
-                    ),
-                    "        </pre>",
-                    "    </div>",
-                    "</html>"
-                )
-            );
-            description.setOpaque(false);
+            rebuildScreen("help");
 
-            constraints.gridy = 1;
-            constraints.fill = GridBagConstraints.NONE;
-            add(description, constraints);
+        } else if (component == hint) {
+            showHint();
+            return;
 
-            constraints.gridy = 2;
-            add(back, constraints);
+        } else if (component == solve) {
+            showSolution();
+            return;
 
-        } else if (component == back) {
-            removeAll();
-            setupComponents();
+        } else if (component == replay) {
+            gamePanel.replayHistory();
+            return;
 
-        } else {
+        } else if (component == save) {
+            gamePanel.stopReplay();
+            saveGame();
             return;
+
+        } else if (component == load) {
+            loadGame();
+            return;
+
+        } else if (component == undo) {
+            gamePanel.stopReplay();
+            gamePanel.getEngine().undo();
+            return;
+
+        } else if (component == redo) {
+            gamePanel.stopReplay();
+            gamePanel.getEngine().redo();
+            return;
+
+        } else if (component == back) {
+            rebuildScreen("game");
         }
+    }
 
+    // replaces every component of the app by those of the `screen` (`help` or `game`)
+    //
+    private void rebuildScreen(String screen) {
+        GameEvents.Rebuild event = new GameEvents.Rebuild();
+        event.begin();
+        long start = SCREEN_REBUILDS.start();
+
+        removeAll();
+        if (screen.equals("help")) {
+            setupHelp();
+        } else {
+            setupComponents();
+        }
         revalidate();
         repaint();
+
+        SCREEN_REBUILDS.stop(start);
+        if (event.shouldCommit()) {
+            event.reason = screen;
+            event.rows = rows;
+            event.cols = cols;
+            event.commit();
+        }
+    }
+
+    // creates and adds the components of the help screen
+    //
+    private void setupHelp() {
+        JLabel title = new JLabel("How to Play");
+        title.setFont(TITLE_FONT);
+        title.setForeground(GamePanel.TEXT_COLOR);
+        title.setHorizontalAlignment(JLabel.CENTER);
+
+        GridBagConstraints constraints = getDefaultConstraints();
+
+        constraints.gridy = 0;
+        add(title, constraints);
+
+        JTextPane description = new JTextPane();
+        description.setContentType("text/html");
+        description.setEditable(false);
+        description.setText(
+            String.join(
+                System.lineSeparator(),
+                "<html>",
+                "    <div style=\"",
+                String.format(
+                    "        color: rgb(%d, %d, %d);",
+                    LABEL_COLOR.getRed(),
+                    LABEL_COLOR.getGreen(),
+                    LABEL_COLOR.getRed()
+                ),
+                "        font-size: 20pt;",
+                "        font-weight: 200;",
+                "    \">",
+                "        <pre>",
+                "The goal of the game is to sort all the tiles in ascending order.",
+                "",
+                "The desired endgame layout is to have the top-left corner be a <b>[1]</b>",
+                "and in <b>ascending</b> order all the way to the bottom-left which should be the <b>[largest number]</b>",
+                "",
+                "The dark gray tile represents the <b>empty</b> tile that its neighbors can swap to.",
+                "Therefore, only the direct <b>neighbors</b> of that tile can be <b>clicked</b>",
+                "and said tile will get <b>swapped</b> with the blank tile when <b>clicked</b>",
+                "",
+                "<b>Note:</b> All tiles that are in the <b>correct</b> position will be colored <b>green</b> instead",
+                "        </pre>",
+                "        <hr>",
+                "        <pre>",
+                "Click <b>[Restart]</b> to generate a random fresh board (and to update grid size values)",
+                "",
+                String.format(
+                    "Click <b>[Hint]</b> to see the next move of a shortest solution (boards of up to %d tiles)",
+                    MAX_HINT_TILES
+                ),
+                String.format(
+                    "Click <b>[Solve]</b> to watch the current board being solved (boards of up to %d tiles)",
+                    MAX_SOLVE_TILES
+                ),
+                "",
+                "Drag over the tiles to move them in turn, the blank tile following the pointer",
+                slideMode == GamePanel.SlideMode.OFF
+                    ? "(Run with <b>-Dslider.slides=tiles</b> or <b>one</b> to slide whole lines of tiles at once)"
+                    : String.format(
+                        "Click any tile in the blank tile's row or column to slide the line up to it (%s)",
+                        slideMode == GamePanel.SlideMode.ONE ? "counting as one move" : "a move per tile"
+                    ),
+                "",
+                "Click <b>[Undo]</b> / <b>[Redo]</b> to take back / make again the last move",
+                "Click <b>[Replay]</b> to watch the moves made so far from the start of the game",
+                "Click <b>[Save]</b> / <b>[Load]</b> to save the game (and its moves) to / continue it from a file",
+                "",
+                String.format(
+                    "Enter <b>[# Rows]</b> (number from %d to %d) to change the number of rows of the grid",
+                    MIN_DIMS, MAX_DIMS
+                ),
+                String.format(
+                    "Enter <b>[# Cols]</b> (number from %d to %d) to change number of columns of the grid",
+                    MIN_DIMS, MAX_DIMS
+                ),
+                "(By default the grid size is <b>4x4</b>)",
+                String.format(
+                    "Grids with over %d rows or columns scroll, following the blank tile",
+                    LARGE_BOARD_DIMS
+                ),
+                "Press <b>[F12]</b> to show / hide timings of moves, rendering and solving",
+                "",
+                "<i>* All generated puzzles are guaranteed solvable</i>",
+                "",
+                "<b>Have Fun!</b>",
+                "",
+                String.format(
+                    "[Running on Java v%s]",
+                    System.getProperty("java.version")
+                ),
+                "        </pre>",
+                "    </div>",
+                "</html>"
+            )
+        );
+        description.setOpaque(false);
+
+        constraints.gridy = 1;
+        constraints.fill = GridBagConstraints.NONE;
+        add(description, constraints);
+
+        constraints.gridy = 2;
+        add(back, constraints);
     }
 
     public static void main(String[] args) throws FontFormatException, IOException {
@@ -350,6 +748,8 @@ public class App extends JPanel implements ActionListener {
                 JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED
             )
         );
+        DebugOverlay.install(frame);
+        EdtWatchdog.install();
         frame.setVisible(true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import javax.swing.SwingUtilities;
+
+// Slow work (shuffling, solving) run off the event dispatch thread
+//
+// every task gets its own virtual thread when the runtime has them (Java 21+),
+// otherwise a daemon thread from a shared cached pool (see `Threads`).
+// progress (in percent) and the result are handed back to the event dispatch thread
+// through `SwingUtilities.invokeLater`, so the callbacks can update components directly.
+//
+// `cancel` interrupts the work, which long loops notice by polling their thread's interrupt status
+// (throwing a `CancellationException`, see `PuzzleGenerator.randomWalk`), and guarantees that no callback
+// runs afterwards. tasks are meant to be started and cancelled from the event dispatch thread only.
+//
+// a task that isn't cancelled always calls back exactly once, with its result or with whatever the work threw
+// (errors such as an `OutOfMemoryError` included), so its owner can always let go of it.
+//
+public class BackgroundTask<T> {
+    // the work of a task, reporting its progress (in percent) to `progress` as it goes
+    public interface Work<T> {
+        T run(IntConsumer progress) throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Threads.newPerTaskExecutor("slider-task", 0);
+
+    private final Future<?> future;
+    // only written and read on the event dispatch thread, so no callback can run once it is set
+    private boolean cancelled;
+    private boolean done;
+    // the last progress reported, so repeated values aren't posted to the event dispatch thread
+    private volatile int reported = -1;
+
+    private BackgroundTask(Work<T> work, IntConsumer progress, Consumer<T> finished, Consumer<Throwable> failed) {
+        future = EXECUTOR.submit(() -> {
+            T result;
+            try {
+                result = work.run(percent -> report(percent, progress));
+            } catch (Throwable err) {
+                // a `CancellationException` only reaches `failed` when the task wasn't cancelled
+                SwingUtilities.invokeLater(() -> {
+                    done = true;
+                    if (!cancelled) {
+                        failed.accept(err);
+                    }
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                done = true;
+                if (!cancelled) {
+                    finished.accept(result);
+                }
+            });
+        });
+    }
+
+    // starts running `work` in the background, calling `finished` with its result once it completes,
+    // or `failed` with what it threw, and `progress` whenever the percentage it reports changes
+    //
+    public static <T> BackgroundTask<T> start(
+        Work<T> work, IntConsumer progress, Consumer<T> finished, Consumer<Throwable> failed
+    ) {
+        return new BackgroundTask<T>(work, progress, finished, failed);
+    }
+
+    // stops the task, its callbacks being dropped even if the work had already completed or failed
+    //
+    public void cancel() {
+        cancelled = true;
+        future.cancel(true);
+    }
+
+    // whether the task is still to call back (neither finished nor cancelled)
+    //
+    public boolean isRunning() {
+        return !done && !cancelled;
+    }
+
+    private void report(int percent, IntConsumer progress) {
+        if (percent != reported) {
+            reported = percent;
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled && !done) {
+                    progress.accept(percent);
+                }
+            });
+        }
+    }
+}
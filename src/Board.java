@@ -0,0 +1,382 @@
+import java.util.Arrays;
+
+// Flat, primitive representation of the game board
+//
+// the grid is stored row-major in a single `int[]` (`tiles`, cell -> tile)
+// alongside its inverse (`positions`, tile -> cell) and the cell of the blank tile,
+// so that finding a tile, finding the blank and moving are all O(1) and allocation free.
+//
+// the solved layout has tile `i + 1` at cell `i` and the blank (`0`) in the last cell.
+//
+// a Zobrist hash of the layout (the xor of a random key per numbered tile and cell) is kept up to date
+// by `swap` in O(1), for recognising repeated layouts (see `TranspositionTable`).
+// the keys are derived by mixing the tile and cell rather than drawn into a table,
+// which would need `(rows * cols) ^ 2` of them, so they are the same for every board and run.
+//
+public class Board {
+    // directions that the *blank* tile can move in
+    // opposite directions differ only in their lowest bit: `dir ^ 1`
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    private final int rows;
+    private final int cols;
+
+    // cell index -> tile number
+    private final int[] tiles;
+    // tile number -> cell index
+    private final int[] positions;
+    // cell index of the blank tile (tile `0`)
+    private int blank;
+    // number of cells (including the blank's) holding their solved tile
+    // kept up to date by `swap` so the solved check is O(1)
+    private int correct;
+    // Zobrist hash of the layout, also kept up to date by `swap`
+    private long hash;
+
+    // creates a solved board of `rows` x `cols`
+    //
+    public Board(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+
+        int size = rows * cols;
+        tiles = new int[size];
+        positions = new int[size];
+        reset();
+    }
+
+    // creates a board of `rows` x `cols` with the given row-major layout
+    //
+    // the layout is expected to be a permutation of `[0, rows * cols)`
+    //
+    public Board(int rows, int cols, int[] layout) {
+        this(rows, cols);
+        setTiles(layout);
+    }
+
+    // copy constructor
+    //
+    public Board(Board other) {
+        this(other.rows, other.cols, other.tiles);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // number of cells (including the blank)
+    //
+    public int size() {
+        return tiles.length;
+    }
+
+    // restores the solved layout
+    //
+    public void reset() {
+        for (int cell = 0; cell < tiles.length; cell++) {
+            int tile = goalTile(cell);
+            tiles[cell] = tile;
+            positions[tile] = cell;
+        }
+        blank = tiles.length - 1;
+        correct = tiles.length;
+        hash = computeHash();
+    }
+
+    // overwrites the board with the given row-major layout
+    //
+    public void setTiles(int[] layout) {
+        if (layout.length != tiles.length) {
+            throw new IllegalArgumentException(String.format(
+                "Expected %d tiles but got %d", tiles.length, layout.length
+            ));
+        }
+        for (int cell = 0; cell < layout.length; cell++) {
+            int tile = layout[cell];
+            tiles[cell] = tile;
+            positions[tile] = cell;
+        }
+        blank = positions[0];
+        correct = countCorrect();
+        hash = computeHash();
+    }
+
+    // returns a copy of the row-major layout
+    //
+    public int[] toArray() {
+        return tiles.clone();
+    }
+
+    // the tile at the flattened `cell` index
+    //
+    public int get(int cell) {
+        return tiles[cell];
+    }
+
+    // the tile at row `i`, column `j`
+    //
+    public int get(int i, int j) {
+        return tiles[i * cols + j];
+    }
+
+    // the flattened cell index of `tile`
+    //
+    public int indexOf(int tile) {
+        return positions[tile];
+    }
+
+    // the flattened cell index of the blank tile
+    //
+    public int getBlank() {
+        return blank;
+    }
+
+    public int rowOf(int cell) {
+        return cell / cols;
+    }
+
+    public int colOf(int cell) {
+        return cell % cols;
+    }
+
+    // whether every tile is in its sorted position
+    //
+    public boolean isSolved() {
+        return correct == tiles.length;
+    }
+
+    // the Zobrist hash of the layout
+    //
+    // equal layouts (of boards of the same dimensions) always have equal hashes,
+    // and different ones collide with a probability of about `2 ^ -64`
+    //
+    public long getHash() {
+        return hash;
+    }
+
+    // the Zobrist key of numbered `tile` being at `cell`, the hash being the xor of the keys of all the tiles
+    //
+    // the blank has no key of its own, its cell being implied by the others'
+    //
+    public static long zobrist(int tile, int cell) {
+        // the finalizer of `SplittableRandom` (Stafford's variant 13), over a distinct input per (tile, cell)
+        long z = ((long) tile << 32 | cell) * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // number of numbered tiles (excluding the blank) that are in their sorted position
+    //
+    public int getTilesInPlace() {
+        return blank == tiles.length - 1 ? correct - 1 : correct;
+    }
+
+    // the tile that belongs at `cell` once the puzzle is solved
+    //
+    public int goalTile(int cell) {
+        return cell == tiles.length - 1 ? 0 : cell + 1;
+    }
+
+    // the cell that `tile` belongs at once the puzzle is solved
+    //
+    public int goalCell(int tile) {
+        return tile == 0 ? tiles.length - 1 : tile - 1;
+    }
+
+    // the cell adjacent to `cell` in direction `dir`
+    // or `-1` if that would be outside of the grid
+    //
+    public int neighbor(int cell, int dir) {
+        switch (dir) {
+            case UP:
+                return cell >= cols ? cell - cols : -1;
+            case DOWN:
+                return cell + cols < tiles.length ? cell + cols : -1;
+            case LEFT:
+                return cell % cols != 0 ? cell - 1 : -1;
+            case RIGHT:
+                return cell % cols != cols - 1 ? cell + 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    // whether the blank tile can move in direction `dir`
+    //
+    public boolean canMove(int dir) {
+        return neighbor(blank, dir) != -1;
+    }
+
+    // whether `tile` is in the 4-neighborhood of the blank tile,
+    // i.e. whether it can currently be moved
+    //
+    public boolean isMovable(int tile) {
+        if (tile <= 0 || tile >= tiles.length) {
+            return false;
+        }
+        int cell = positions[tile];
+        int diff = cell - blank;
+
+        return (
+            (diff == cols || diff == -cols)
+            || ((diff == 1 || diff == -1) && cell / cols == blank / cols)
+        );
+    }
+
+    // the direction the blank moves in when it swaps with the neighboring `tile`
+    // or `-1` when the tile is not movable
+    //
+    public int directionOf(int tile) {
+        if (!isMovable(tile)) {
+            return -1;
+        }
+        int diff = positions[tile] - blank;
+
+        if (diff == -cols) {
+            return UP;
+        } else if (diff == cols) {
+            return DOWN;
+        } else if (diff == -1) {
+            return LEFT;
+        }
+        return RIGHT;
+    }
+
+    // the direction the blank moves in toward `tile` when the tile is in the blank's row or column,
+    // or `-1` when it isn't (sliding it and the tiles between them takes `distanceTo(tile)` moves that way)
+    //
+    public int lineDirectionOf(int tile) {
+        if (tile <= 0 || tile >= tiles.length) {
+            return -1;
+        }
+        int cell = positions[tile];
+
+        if (cell / cols == blank / cols) {
+            return cell < blank ? LEFT : RIGHT;
+        } else if (cell % cols == blank % cols) {
+            return cell < blank ? UP : DOWN;
+        }
+        return -1;
+    }
+
+    // the number of cells between the blank and `tile` (their manhattan distance)
+    //
+    public int distanceTo(int tile) {
+        int cell = positions[tile];
+        return Math.abs(cell / cols - blank / cols) + Math.abs(cell % cols - blank % cols);
+    }
+
+    // moves the blank tile in direction `dir`, swapping it with its neighbor
+    // returns the cell that the blank tile previously occupied, or `-1` if the move is illegal
+    //
+    public int move(int dir) {
+        int target = neighbor(blank, dir);
+
+        if (target == -1) {
+            return -1;
+        }
+        int previous = blank;
+        swap(target);
+        return previous;
+    }
+
+    // slides the neighboring `tile` into the blank cell
+    // returns whether the move was legal (and therefore performed)
+    //
+    public boolean moveTile(int tile) {
+        if (!isMovable(tile)) {
+            return false;
+        }
+        swap(positions[tile]);
+        return true;
+    }
+
+    // swaps the blank tile with whatever tile is at `cell`
+    //
+    // the caller is responsible for `cell` being adjacent to the blank
+    //
+    public void swap(int cell) {
+        int tile = tiles[cell];
+
+        // only the two swapped cells can change whether they are in place
+        if (tile == goalTile(cell)) {
+            correct--;
+        } else if (tile == goalTile(blank)) {
+            correct++;
+        }
+        if (blank == tiles.length - 1) {
+            correct--;
+        } else if (cell == tiles.length - 1) {
+            correct++;
+        }
+
+        // the tile leaves `cell` for the blank's cell
+        hash ^= zobrist(tile, cell) ^ zobrist(tile, blank);
+
+        tiles[blank] = tile;
+        positions[tile] = blank;
+
+        tiles[cell] = 0;
+        positions[0] = cell;
+        blank = cell;
+    }
+
+    // counts the cells holding their solved tile from scratch
+    //
+    private int countCorrect() {
+        int count = 0;
+
+        for (int cell = 0; cell < tiles.length; cell++) {
+            if (tiles[cell] == goalTile(cell)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // computes the Zobrist hash from scratch
+    //
+    private long computeHash() {
+        long sum = 0;
+
+        for (int cell = 0; cell < tiles.length; cell++) {
+            if (tiles[cell] != 0) {
+                sum ^= zobrist(tiles[cell], cell);
+            }
+        }
+        return sum;
+    }
+
+    // whether `board` has the same dimensions and layout as this one
+    //
+    // boards are mutable, so this is a comparison of their current state rather than an `equals`
+    //
+    public boolean sameLayout(Board board) {
+        return board.hash == hash && board.rows == rows && board.cols == cols
+            && Arrays.equals(board.tiles, tiles);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (j > 0) {
+                    builder.append(' ');
+                }
+                builder.append(get(i, j));
+            }
+            builder.append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,254 @@
+import java.awt.*;
+import java.awt.event.*;
+
+import javax.swing.JComponent;
+
+// Board renderer that paints every tile itself, as an alternative to a grid of `JButton`s
+//
+// a single component no matter the board size: clicks (and drags) are mapped to cells arithmetically
+// and a move only repaints the two cells whose tiles were swapped, a slide the line of cells between them.
+// labels are blitted from a `GlyphAtlas`, rebuilt only when the cell size changes.
+//
+// given a fixed cell size (see `setCellSize`) it can be scrolled through boards far larger than the
+// screen: only the cells within the viewport are ever painted, and it holds no per-cell state.
+//
+public class BoardCanvas extends JComponent implements MouseListener, MouseMotionListener, ComponentListener {
+    // width of the outline drawn around every tile, matching the buttons' `LineBorder`
+    private static final int OUTLINE_WIDTH = 4;
+
+    private final GameEngine engine;
+    // whether clicking a tile in line with the blank slides the tiles in between (see `GamePanel.SlideMode`)
+    private final boolean slides;
+    // the pre-rendered labels for the current cell size (`null` until first painted or if too large)
+    private GlyphAtlas atlas;
+    // whether `followBlank` was called before the canvas was laid out at its new size
+    private boolean followPending;
+
+    public BoardCanvas(GameEngine engine, boolean slides) {
+        this.engine = engine;
+        this.slides = slides;
+
+        setOpaque(true);
+        addMouseListener(this);
+        addMouseMotionListener(this);
+        addComponentListener(this);
+    }
+
+    // fixes the cells to `size` x `size` pixels (to be placed within a scroll pane)
+    // or stretches them over the component when `size` is `0`
+    //
+    // must be called again when the board's dimensions change
+    //
+    public void setCellSize(int size) {
+        setPreferredSize(size == 0
+            ? null
+            : new Dimension(engine.getCols() * size, engine.getRows() * size));
+        revalidate();
+    }
+
+    // scrolls the enclosing viewport (if any) so that the blank tile and its neighbors are visible
+    // leaving it where it is while the blank is still in view
+    //
+    public void followBlank() {
+        // a new (or resized) board isn't laid out yet, so waits until it is
+        Dimension preferred = getPreferredSize();
+        if (isPreferredSizeSet() && (getWidth() != preferred.width || getHeight() != preferred.height)) {
+            followPending = true;
+            return;
+        }
+        Rectangle bounds = getCellBounds(engine.getBoard().getBlank());
+
+        if (!getVisibleRect().contains(bounds)) {
+            bounds.grow(bounds.width, bounds.height);
+            scrollRectToVisible(bounds);
+        }
+    }
+
+    // the x coordinate of the left edge of column `j`
+    // (cells share the width the same way `GridLayout` would, up to rounding)
+    //
+    private int cellX(int j) {
+        return j * getWidth() / engine.getCols();
+    }
+
+    // the y coordinate of the top edge of row `i`
+    //
+    private int cellY(int i) {
+        return i * getHeight() / engine.getRows();
+    }
+
+    // the bounds of the flattened `cell`
+    //
+    public Rectangle getCellBounds(int cell) {
+        int i = cell / engine.getCols();
+        int j = cell % engine.getCols();
+        int x = cellX(j);
+        int y = cellY(i);
+
+        return new Rectangle(x, y, cellX(j + 1) - x, cellY(i + 1) - y);
+    }
+
+    // the flattened cell at point (`x`, `y`) or `-1` when outside of the board
+    //
+    public int cellAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight()) {
+            return -1;
+        }
+        int cols = engine.getCols();
+        int rows = engine.getRows();
+        int j = Math.min(cols - 1, x * cols / getWidth());
+        int i = Math.min(rows - 1, y * rows / getHeight());
+
+        // corrects for the rounding of `cellX` / `cellY`
+        if (x < cellX(j)) {
+            j--;
+        } else if (j + 1 < cols && x >= cellX(j + 1)) {
+            j++;
+        }
+        if (y < cellY(i)) {
+            i--;
+        } else if (i + 1 < rows && y >= cellY(i + 1)) {
+            i++;
+        }
+        return i * cols + j;
+    }
+
+    // repaints only the area of the flattened `cell`
+    //
+    public void repaintCell(int cell) {
+        repaint(getCellBounds(cell));
+    }
+
+    // repaints the area spanning the cells `from` to `to`, in a row or column, as a single region
+    //
+    public void repaintCells(int from, int to) {
+        repaint(getCellBounds(from).union(getCellBounds(to)));
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        Board board = engine.getBoard();
+        int rows = engine.getRows();
+        int cols = engine.getCols();
+
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // the widest / tallest cell, as they differ by a pixel when the size doesn't divide evenly
+        int slotWidth = (getWidth() + cols - 1) / cols;
+        int slotHeight = (getHeight() + rows - 1) / rows;
+        if (atlas == null || !atlas.matches(board.size(), slotWidth, slotHeight)) {
+            atlas = GlyphAtlas.create(board.size(), slotWidth, slotHeight, getGraphicsConfiguration());
+        }
+
+        // only paints the cells intersecting the area being repainted
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstRow = Math.max(0, cellAt(0, clip.y) / cols);
+        int lastRow = Math.max(firstRow, cellAt(0, Math.min(getHeight() - 1, clip.y + clip.height - 1)) / cols);
+        int firstCol = Math.max(0, cellAt(clip.x, 0) % cols);
+        int lastCol = Math.max(firstCol, cellAt(Math.min(getWidth() - 1, clip.x + clip.width - 1), 0) % cols);
+
+        for (int i = firstRow; i <= lastRow && i < rows; i++) {
+            for (int j = firstCol; j <= lastCol && j < cols; j++) {
+                paintTile(g, board, i, j);
+            }
+        }
+    }
+
+    // paints the tile at (`i`, `j`): its outline, background color and label
+    //
+    private void paintTile(Graphics2D g, Board board, int i, int j) {
+        int cell = i * engine.getCols() + j;
+        int x = cellX(j);
+        int y = cellY(i);
+        int width = cellX(j + 1) - x;
+        int height = cellY(i + 1) - y;
+        int innerWidth = width - 2 * OUTLINE_WIDTH;
+        int innerHeight = height - 2 * OUTLINE_WIDTH;
+        int num = board.get(cell);
+        Color color = GamePanel.tileColor(board, cell);
+
+        g.setColor(GamePanel.OUTLINE_COLOR);
+        g.fillRect(x, y, width, height);
+
+        // numbered tiles are a single blit of their label on its background, when there is an atlas
+        if (num != 0 && atlas != null
+            && atlas.draw(g, num, color, x + OUTLINE_WIDTH, y + OUTLINE_WIDTH, innerWidth, innerHeight)) {
+            return;
+        }
+        g.setColor(color);
+        g.fillRect(x + OUTLINE_WIDTH, y + OUTLINE_WIDTH, innerWidth, innerHeight);
+
+        if (num == 0) {
+            return;
+        }
+        // boards too large for an atlas lay the label out as text
+        String label = String.valueOf(num);
+        g.setFont(getFont(label.length(), width, height));
+        g.setColor(GamePanel.TEXT_COLOR);
+
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(
+            label,
+            x + (width - metrics.stringWidth(label)) / 2,
+            y + (height - metrics.getHeight()) / 2 + metrics.getAscent()
+        );
+    }
+
+    // the font fitted to a label of `digits` digits in a `width` x `height` cell
+    //
+    // shared through `ButtonListener`'s cache (cells of the same board differ by at most a pixel)
+    //
+    private Font getFont(int digits, int width, int height) {
+        return ButtonListener.fitFont(digits, Math.max(1, width), Math.max(1, height));
+    }
+
+    // moves the clicked tile, if it is beside the blank tile or in line with it when sliding
+    // (and the canvas is enabled)
+    //
+    public void mousePressed(MouseEvent event) {
+        int cell = cellAt(event.getX(), event.getY());
+
+        if (cell != -1 && isEnabled()) {
+            GamePanel.moveTile(engine, engine.getBoard().get(cell), slides);
+        }
+    }
+
+    // moves the tiles dragged over the same way, so that the blank follows the pointer
+    //
+    public void mouseDragged(MouseEvent event) {
+        int cell = cellAt(event.getX(), event.getY());
+
+        if (cell != -1 && isEnabled() && GamePanel.canMove(engine, engine.getBoard().get(cell), slides)) {
+            GamePanel.moveTile(engine, engine.getBoard().get(cell), slides);
+        }
+    }
+
+    public void mouseMoved(MouseEvent event) {}
+
+    // finishes a `followBlank` that had to wait for the canvas to be laid out
+    //
+    public void componentResized(ComponentEvent event) {
+        if (followPending) {
+            followPending = false;
+            followBlank();
+        }
+    }
+
+    public void componentMoved(ComponentEvent event) {}
+
+    public void componentHidden(ComponentEvent event) {}
+
+    public void componentShown(ComponentEvent event) {}
+
+    public void mouseClicked(MouseEvent event) {}
+
+    public void mouseReleased(MouseEvent event) {}
+
+    public void mouseEntered(MouseEvent event) {}
+
+    public void mouseExited(MouseEvent event) {}
+}
@@ -0,0 +1,96 @@
+import java.nio.ByteBuffer;
+
+// Packing of board layouts into as few whole bits per tile as the board size allows
+//
+// tiles take 4 bits (a nibble, two tiles per byte, the first in the high nibble) on boards of up to
+// 16 cells, a byte up to 256 cells, 2 bytes up to 65536 cells and 4 bytes beyond that,
+// always big-endian, so a layout of `size` tiles takes `recordSize(size)` bytes.
+//
+// shared by the game save files (`GameFile`) and the board corpora (`BoardCorpus`).
+//
+public class BoardCodec {
+    private BoardCodec() {}
+
+    // the number of bits per tile on a board of `size` cells
+    //
+    public static int tileBits(int size) {
+        return size <= 16 ? 4
+            : size <= 256 ? 8
+            : size <= 65536 ? 16
+            : 32;
+    }
+
+    // the number of bytes of a layout of `size` tiles
+    //
+    public static int recordSize(int size) {
+        return (int) (((long) size * tileBits(size) + 7) / 8);
+    }
+
+    // writes `layout` at the position of `out`, advancing it by `recordSize(layout.length)`
+    //
+    public static void pack(int[] layout, ByteBuffer out) {
+        int bits = tileBits(layout.length);
+
+        for (int cell = 0; cell < layout.length; cell++) {
+            int tile = layout[cell];
+
+            switch (bits) {
+                case 4:
+                    if ((cell & 1) == 0) {
+                        int low = cell + 1 < layout.length ? layout[cell + 1] : 0;
+                        out.put((byte) (tile << 4 | low));
+                    }
+                    break;
+                case 8:
+                    out.put((byte) tile);
+                    break;
+                case 16:
+                    out.putShort((short) tile);
+                    break;
+                default:
+                    out.putInt(tile);
+            }
+        }
+    }
+
+    // reads a layout of `layout.length` tiles from the position of `in` into `layout`,
+    // advancing it by `recordSize(layout.length)`
+    //
+    public static void unpack(ByteBuffer in, int[] layout) {
+        for (int cell = 0; cell < layout.length; cell++) {
+            layout[cell] = tile(in, in.position(), layout.length, cell);
+        }
+        in.position(in.position() + recordSize(layout.length));
+    }
+
+    // the tile at `cell` of the layout of `size` tiles stored at (absolute) index `offset` of `buffer`,
+    // without moving the buffer's position
+    //
+    public static int tile(ByteBuffer buffer, int offset, int size, int cell) {
+        switch (tileBits(size)) {
+            case 4:
+                int pair = buffer.get(offset + (cell >>> 1));
+                return (cell & 1) == 0 ? (pair >>> 4) & 0xF : pair & 0xF;
+            case 8:
+                return buffer.get(offset + cell) & 0xFF;
+            case 16:
+                return buffer.getShort(offset + 2 * cell) & 0xFFFF;
+            default:
+                return buffer.getInt(offset + 4 * cell);
+        }
+    }
+
+    // whether `layout` holds every tile from `0` to `layout.length - 1` exactly once
+    //
+    public static boolean isPermutation(int[] layout) {
+        boolean[] seen = new boolean[layout.length];
+
+        for (int tile : layout) {
+            if (tile < 0 || tile >= layout.length || seen[tile]) {
+                return false;
+            }
+            seen[tile] = true;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+// A file of any number of boards of the same size, e.g. a corpus of generated puzzles
+//
+// stored big-endian as the magic number "SLCP", the format `VERSION`, the number of rows and columns
+// (ints) and the number of boards (long), followed by the boards as fixed size records packed by `BoardCodec`.
+//
+// corpora are written through a reused direct buffer and read back through read-only memory mappings
+// (in segments, to go past the 2 GB limit of a single mapping), so boards are read straight from the
+// page cache, one tile at a time if need be, without ever being copied onto the heap.
+//
+public class BoardCorpus {
+    // "SLCP" in ASCII, identifies the file format
+    private static final int MAGIC = 0x534C4350;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    // size of the buffer boards are written through
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    // largest mapping (a whole number of records of at most this many bytes)
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+    // most entries of the table deduplicating the boards written by `main` (1 GB)
+    private static final int DEDUPLICATION_ENTRIES = 1 << 26;
+
+    private final int rows;
+    private final int cols;
+    private final long count;
+    // size of a board's record and number of records per mapped segment
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private BoardCorpus(int rows, int cols, long count, MappedByteBuffer[] segments, int recordsPerSegment) {
+        this.rows = rows;
+        this.cols = cols;
+        this.count = count;
+        this.segments = segments;
+        this.recordsPerSegment = recordsPerSegment;
+        recordSize = BoardCodec.recordSize(rows * cols);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // the number of boards in the corpus
+    //
+    public long size() {
+        return count;
+    }
+
+    // the tile at `cell` of the `index`-th board, read straight from the mapping
+    //
+    public int tile(long index, int cell) {
+        checkIndex(index);
+        return BoardCodec.tile(
+            segments[(int) (index / recordsPerSegment)],
+            (int) (index % recordsPerSegment) * recordSize,
+            rows * cols,
+            cell
+        );
+    }
+
+    // copies the layout of the `index`-th board into `layout` (of `rows * cols` tiles)
+    //
+    public void get(long index, int[] layout) {
+        checkIndex(index);
+        ByteBuffer segment = segments[(int) (index / recordsPerSegment)].duplicate();
+
+        segment.position((int) (index % recordsPerSegment) * recordSize);
+        BoardCodec.unpack(segment, layout);
+    }
+
+    // the `index`-th board, copied from the mapping a word at a time
+    //
+    public PackedBoard getPacked(long index) {
+        checkIndex(index);
+        return PackedBoard.read(
+            segments[(int) (index / recordsPerSegment)],
+            (int) (index % recordsPerSegment) * recordSize,
+            rows,
+            cols
+        );
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(String.format("Board %d of %d", index, count));
+        }
+    }
+
+    // writes the `count` boards of `boards` (row-major layouts of `rows` x `cols` tiles)
+    // to `path`, replacing it atomically
+    //
+    public static void write(Path path, int rows, int cols, long count, Iterator<int[]> boards) throws IOException {
+        int size = rows * cols;
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(
+            Math.max(WRITE_BUFFER_SIZE, HEADER_SIZE + BoardCodec.recordSize(size))
+        );
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putLong(count);
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (long i = 0; i < count; i++) {
+                    int[] layout = boards.next();
+
+                    if (layout.length != size) {
+                        throw new IllegalArgumentException(String.format(
+                            "Expected %d tiles but got %d", size, layout.length
+                        ));
+                    }
+                    if (buffer.remaining() < BoardCodec.recordSize(size)) {
+                        drain(buffer, channel);
+                    }
+                    BoardCodec.pack(layout, buffer);
+                }
+                drain(buffer, channel);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException err) {
+            Files.deleteIfExists(temp);
+            throw err;
+        }
+    }
+
+    // writes the contents of `buffer` to `channel` and clears it for reuse
+    //
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // memory-maps the corpus at `path`
+    //
+    public static BoardCorpus open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) != -1) {}
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a board corpus: " + path);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long count = header.getLong();
+
+            // as checked by `GameFile.load`, and keeping a record within a segment
+            if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE / Integer.BYTES) {
+                throw new IOException(String.format("Invalid board size %dx%d: %s", rows, cols, path));
+            }
+            int recordSize = BoardCodec.recordSize(rows * cols);
+
+            if (count < 0 || count > channel.size() / recordSize || channel.size() != HEADER_SIZE + count * recordSize) {
+                throw new IOException("Truncated board corpus: " + path);
+            }
+            int recordsPerSegment = MAX_SEGMENT_SIZE / recordSize;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((count + recordsPerSegment - 1) / recordsPerSegment)];
+
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long) s * recordsPerSegment;
+                long records = Math.min(recordsPerSegment, count - first);
+
+                segments[s] = channel.map(
+                    FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * recordSize, records * recordSize
+                );
+            }
+            return new BoardCorpus(rows, cols, count, segments, recordsPerSegment);
+        }
+    }
+
+    // writes a corpus of seeded boards (without repeated layouts with `distinct`), or scans one,
+    // reporting the throughput:
+    // `java -cp bin BoardCorpus write <file> <rows> <cols> <count> [seed] [distinct]`
+    // `java -cp bin BoardCorpus scan <file>`
+    //
+    // scanning sums the manhattan distances of every board, reading the tiles straight from the mapping
+    //
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args[1]);
+        long start = System.nanoTime();
+
+        if (args[0].equals("write")) {
+            int rows = Integer.parseInt(args[2]);
+            int cols = Integer.parseInt(args[3]);
+            long count = Long.parseLong(args[4]);
+            long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+            boolean distinct = args.length > 6 && args[6].equals("distinct");
+
+            write(
+                path, rows, cols, count,
+                (distinct
+                    ? PuzzleGenerator.streamDistinct(
+                        rows, cols, PuzzleGenerator.Mode.PERMUTATION, seed, count,
+                        new TranspositionTable((int) Math.min(16 * count, DEDUPLICATION_ENTRIES))
+                    )
+                    : PuzzleGenerator.stream(rows, cols, PuzzleGenerator.Mode.PERMUTATION, seed, count)
+                ).iterator()
+            );
+            System.out.printf(
+                "Wrote %d %dx%d boards (%d bytes) in %.1f s%n",
+                count, rows, cols, Files.size(path), (System.nanoTime() - start) / 1e9
+            );
+            return;
+        }
+        BoardCorpus corpus = open(path);
+        int size = corpus.getRows() * corpus.getCols();
+        int cols = corpus.getCols();
+        long total = 0;
+
+        for (long i = 0; i < corpus.size(); i++) {
+            for (int cell = 0; cell < size; cell++) {
+                int tile = corpus.tile(i, cell);
+
+                if (tile != 0) {
+                    total += Math.abs(cell / cols - (tile - 1) / cols) + Math.abs(cell % cols - (tile - 1) % cols);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(
+            "Scanned %d %dx%d boards in %.2f s (%.1f M boards/s), mean manhattan distance %.2f%n",
+            corpus.size(), corpus.getRows(), cols, seconds, corpus.size() / seconds / 1e6,
+            corpus.size() == 0 ? 0 : (double) total / corpus.size()
+        );
+    }
+}
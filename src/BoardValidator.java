@@ -0,0 +1,219 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Checks boards coming from outside the game (saved files, `GameServer`'s `LOAD`) before they are played
+//
+// a layout is valid when its dimensions are within `MIN_DIMS` and `MAX_DIMS` (as entered in `App`)
+// and it holds every tile from `0` (the blank) to `rows * cols - 1` exactly once. it is then solvable by the
+// blank-row rule, the blank being slid to the bottom right: with an odd number of columns every move keeps
+// the parity of the number of inversions (pairs of numbered tiles out of order, reading row by row), so it has
+// to be even; with an even number, a vertical move also flips it as the blank changes rows, so the number of
+// inversions plus the blank's row counted from the bottom (`1` for the last row) has to be odd.
+//
+// inversions are counted in a single pass, in O(n log n) rather than O(n^2) by comparing every pair:
+// the tiles read so far are set in a bitset, and a Fenwick (binary indexed) tree over its 64-bit words
+// counts the tiles in the words before a tile's own, so counting the tiles below one is a few steps up
+// the tree plus the bit count of part of its word (4 steps on a 30x30 board rather than 10 with a tree
+// of tiles). the bitset also finds any repeated tile.
+//
+// a validator reuses its bitset and tree between boards, so checking millions of them allocates nothing but
+// verdicts, but it isn't thread-safe. the static `validate` uses a fresh one.
+//
+public class BoardValidator {
+    // size constraints (inclusive) of the rows and columns, the same as entered in `App`
+    public static final int MIN_DIMS = 2;
+    public static final int MAX_DIMS = 1000;
+
+    // the outcome of validating a board
+    public static class Verdict {
+        private final String problem;
+        private final long inversions;
+        private final int blankRow;
+        private final boolean solvable;
+
+        private Verdict(String problem, long inversions, int blankRow, boolean solvable) {
+            this.problem = problem;
+            this.inversions = inversions;
+            this.blankRow = blankRow;
+            this.solvable = solvable;
+        }
+
+        // whether the board has valid dimensions and its layout is a permutation of its tiles
+        //
+        public boolean isValid() {
+            return problem == null;
+        }
+
+        // why the board is invalid, or `null` when it is valid
+        //
+        public String getProblem() {
+            return problem;
+        }
+
+        // number of pairs of numbered tiles out of order, reading row by row (`0` when invalid)
+        //
+        public long getInversions() {
+            return inversions;
+        }
+
+        // row of the blank counted from the bottom, `1` being the last row (`0` when invalid)
+        //
+        public int getBlankRowFromBottom() {
+            return blankRow;
+        }
+
+        // whether the board is valid and can be slid into the solved configuration
+        //
+        public boolean isSolvable() {
+            return solvable;
+        }
+
+        @Override
+        public String toString() {
+            return problem != null ? "invalid: " + problem : String.format(
+                "%s (%d inversions, blank on row %d from the bottom)",
+                solvable ? "solvable" : "unsolvable", inversions, blankRow
+            );
+        }
+    }
+
+    // the tiles read so far, and the Fenwick tree of the number of them in each word of `seen`
+    // (entry `i` counting up to word `i - 1`, entry `0` unused)
+    private long[] seen = new long[0];
+    private int[] tree = new int[1];
+
+    // whether `size` is allowed as a number of rows or columns
+    //
+    public static boolean isValidDimension(int size) {
+        return size >= MIN_DIMS && size <= MAX_DIMS;
+    }
+
+    // validates the row-major `layout` of a `rows` x `cols` board with a new validator
+    //
+    public static Verdict validate(int rows, int cols, int[] layout) {
+        return new BoardValidator().check(rows, cols, layout);
+    }
+
+    // validates the row-major `layout` of a `rows` x `cols` board
+    //
+    public Verdict check(int rows, int cols, int[] layout) {
+        if (!isValidDimension(rows) || !isValidDimension(cols)) {
+            return invalid(String.format(
+                "the number of rows and columns must be between %d and %d", MIN_DIMS, MAX_DIMS
+            ));
+        }
+        int size = rows * cols;
+        if (layout.length != size) {
+            return invalid(String.format("%d tiles for a %dx%d board", layout.length, rows, cols));
+        }
+        int words = (size + Long.SIZE - 1) / Long.SIZE;
+        if (seen.length < words) {
+            seen = new long[words];
+            tree = new int[words + 1];
+        } else {
+            Arrays.fill(seen, 0, words, 0);
+            Arrays.fill(tree, 0, words + 1, 0);
+        }
+        long inversions = 0;
+        int blankCell = -1;
+        // numbered tiles read so far
+        int read = 0;
+
+        for (int cell = 0; cell < size; cell++) {
+            int tile = layout[cell];
+
+            if (tile < 0 || tile >= size) {
+                return invalid(String.format("tile %d out of range at cell %d", tile, cell));
+            }
+            if ((seen[tile >>> 6] & 1L << tile) != 0) {
+                return invalid(String.format("tile %d repeated at cell %d", tile, cell));
+            }
+            if (tile == 0) {
+                seen[0] |= 1;
+                blankCell = cell;
+                continue;
+            }
+            // every tile read so far that is greater than this one makes an inversion with it
+            inversions += read - countBelow(tile);
+            add(tile, words);
+            read++;
+        }
+        int blankRow = rows - blankCell / cols;
+        boolean solvable = cols % 2 == 1
+            ? inversions % 2 == 0
+            : (inversions + blankRow) % 2 == 1;
+
+        return new Verdict(null, inversions, blankRow, solvable);
+    }
+
+    private static Verdict invalid(String problem) {
+        return new Verdict(problem, 0, 0, false);
+    }
+
+    // number of numbered tiles below `tile` read so far
+    //
+    private int countBelow(int tile) {
+        int word = tile >>> 6;
+        // the blank, always in the first word, isn't a numbered tile
+        int count = Long.bitCount(seen[word] & (1L << tile) - 1) - (word == 0 ? (int) seen[0] & 1 : 0);
+
+        for (int i = word; i > 0; i &= i - 1) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    // marks `tile` as read, in the bitset of `words` words and the tree
+    //
+    private void add(int tile, int words) {
+        seen[tile >>> 6] |= 1L << tile;
+
+        for (int i = (tile >>> 6) + 1; i <= words; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    // validates random boards, half of them unsolvable, reporting the throughput:
+    // `java -cp bin BoardValidator [rows] [cols] [count] [seed]`
+    //
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Board board = new Board(rows, cols);
+        // a pool of layouts, so the timing is of the validation rather than of the shuffling
+        int[][] layouts = new int[Math.min(count, 1024)][];
+
+        for (int i = 0; i < layouts.length; i++) {
+            PuzzleGenerator.generate(board, PuzzleGenerator.Mode.PERMUTATION, random);
+            layouts[i] = board.toArray();
+
+            if (i % 2 == 1) {
+                // swapping two numbered tiles flips the parity
+                int first = layouts[i][0] != 0 ? 0 : 2;
+                int second = layouts[i][1] != 0 ? 1 : 2;
+                int tile = layouts[i][first];
+                layouts[i][first] = layouts[i][second];
+                layouts[i][second] = tile;
+            }
+        }
+        BoardValidator validator = new BoardValidator();
+        int solvable = 0;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            if (validator.check(rows, cols, layouts[i % layouts.length]).isSolvable()) {
+                solvable++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(
+            "%d %dx%d boards validated in %.2f s (%.0f boards/s, %.2f us each), %d solvable%n",
+            count, rows, cols, seconds, count / seconds, seconds * 1e6 / count, solvable
+        );
+    }
+}
@@ -3,10 +3,25 @@ import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.event.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JButton;
 
 public class ButtonListener implements ComponentListener {
+    // the rendering context text is measured with
+    private static final FontRenderContext RENDER_CONTEXT =
+        new FontRenderContext(new AffineTransform(), true, true);
+    // the cache is dropped once it holds this many fonts (a long window drag goes through many sizes)
+    private static final int MAX_CACHED_FONTS = 1024;
+
+    // fitted fonts keyed by (tile width, tile height, digit count), see `key`
+    // so every tile of the same size and number of digits shares a single derived `Font`
+    private static final Map<Long, Font> FONTS = new ConcurrentHashMap<Long, Font>();
+
+    private static final Metrics.Timer SEARCHES = Metrics.timer("font.search");
+    private static final Metrics.Counter CACHE_HITS = Metrics.counter("font.cache.hits");
+
     // callback every time a component
     // in this case: we want to resize the button's `font` every time the component itself is resized
     //
@@ -17,36 +32,87 @@ public class ButtonListener implements ComponentListener {
         if (component instanceof JButton) {
             JButton button = (JButton) component;
 
-            float fontSize = (float) (button.getWidth());
-            Font font = GamePanel.BUTTON_FONT
-                .deriveFont(fontSize);
-            // Get's the pixel width of the rendered text using the given font:
-            // <https://stackoverflow.com/questions/258486/calculate-the-display-width-of-a-string-in-java>
-            //
-            Rectangle2D textDims = font.getStringBounds(
-                button.getText(),
-                new FontRenderContext(new AffineTransform(), true, true)
+            button.setFont(
+                fitFont(button.getText().length(), button.getWidth(), button.getHeight())
             );
+        }
+    }
+
+    // the largest `GamePanel.BUTTON_FONT` that fits a label of `digits` digits within a `width` x `height` tile
+    //
+    // looked up from (or added to) the shared cache, so refitting every tile of a board on resize
+    // costs one search per distinct digit count rather than one per tile
+    //
+    public static Font fitFont(int digits, int width, int height) {
+        // the blank tile has no label, give it the font of a single digit
+        int length = Math.max(1, digits);
+        long key = key(width, height, length);
+        Font font = FONTS.get(key);
+
+        if (font != null) {
+            CACHE_HITS.increment();
+        } else {
+            if (FONTS.size() >= MAX_CACHED_FONTS) {
+                FONTS.clear();
+            }
+            // digits are (tabular) all the same width in most fonts, so any digit stands in for the label
+            font = fitFont("8".repeat(length), width, height);
+            FONTS.put(key, font);
+        }
+        return font;
+    }
+
+    // derives the largest `GamePanel.BUTTON_FONT` that fits `text` within a `width` x `height` tile
+    //
+    public static Font fitFont(String text, int width, int height) {
+        // binary searches the ideal font-size for the text to fit within the button:
+        // the largest size (at least `1`) at which the text's `width` and `height` are respectively
+        // at most 80% (margin space) of the button's `width` and `height`
+        //
+        GameEvents.FontFit event = new GameEvents.FontFit();
+        event.begin();
+        long start = SEARCHES.start();
+
+        int low = 1;
+        int high = Math.max(1, width);
 
-            // brute's force the ideal font-size for the text to fit within the button
-            // keeps attempting while the current text's `width` and `height` are respectively
-            // still greater than 80% (margin space) of the button's `width` and `height`
-            //
-            // decrements font size by `1` each time.
-            while (
-                (float) textDims.getWidth() > button.getWidth() * 0.8
-                || (float) textDims.getHeight() > button.getHeight() * 0.8
-            ) {
-                font = font.deriveFont(fontSize);
-                textDims = font.getStringBounds(
-                    button.getText(),
-                    new FontRenderContext(new AffineTransform(), true, true)
-                );
-
-                fontSize -= 1;
+        while (low < high) {
+            int fontSize = (low + high + 1) >>> 1;
+
+            if (fits(GamePanel.BUTTON_FONT.deriveFont((float) fontSize), text, width, height)) {
+                low = fontSize;
+            } else {
+                high = fontSize - 1;
             }
-            button.setFont(font);
         }
+        SEARCHES.stop(start);
+
+        if (event.shouldCommit()) {
+            event.text = text;
+            event.width = width;
+            event.height = height;
+            event.size = low;
+            event.commit();
+        }
+        return GamePanel.BUTTON_FONT.deriveFont((float) low);
+    }
+
+    // whether `text` rendered with `font` fits within 80% of a `width` x `height` tile
+    //
+    // Get's the pixel width of the rendered text using the given font:
+    // <https://stackoverflow.com/questions/258486/calculate-the-display-width-of-a-string-in-java>
+    //
+    private static boolean fits(Font font, String text, int width, int height) {
+        Rectangle2D textDims = font.getStringBounds(text, RENDER_CONTEXT);
+
+        return (float) textDims.getWidth() <= width * 0.8
+            && (float) textDims.getHeight() <= height * 0.8;
+    }
+
+    // packs a tile size and digit count into a cache key
+    //
+    private static long key(int width, int height, int digits) {
+        return ((long) width << 36) | ((long) height << 8) | digits;
     }
 
     public void componentMoved(ComponentEvent event) {}
@@ -54,4 +120,4 @@ public class ButtonListener implements ComponentListener {
     public void componentHidden(ComponentEvent event) {}
 
     public void componentShown(ComponentEvent event) {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.util.List;
+
+import javax.swing.*;
+
+// Translucent panel over the whole window listing the `Metrics` registry, refreshed twice a second
+//
+// installed as the frame's glass pane and toggled with F12 (or shown from the start with `-Dslider.debug=true`).
+// it has no mouse listeners, so clicks go through to the game underneath.
+//
+public class DebugOverlay extends JComponent implements ActionListener {
+    private static final int REFRESH_MILLIS = 500;
+    private static final int PADDING = 10;
+
+    private static final Color BACKGROUND = new Color(0, 0, 0, 180);
+    private static final Color TEXT = new Color(170, 255, 200);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    private final Timer refresh = new Timer(REFRESH_MILLIS, this);
+
+    private DebugOverlay() {
+        setOpaque(false);
+    }
+
+    // installs an overlay on `frame`, toggled by F12
+    //
+    public static void install(JFrame frame) {
+        DebugOverlay overlay = new DebugOverlay();
+        frame.setGlassPane(overlay);
+
+        JRootPane root = frame.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F12, 0), "debug");
+        root.getActionMap().put("debug", new AbstractAction() {
+            public void actionPerformed(ActionEvent event) {
+                overlay.setVisible(!overlay.isVisible());
+            }
+        });
+        overlay.setVisible(Boolean.getBoolean("slider.debug"));
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+
+        if (visible) {
+            refresh.start();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    // repaints with the latest metrics
+    //
+    public void actionPerformed(ActionEvent event) {
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        List<String> lines = Metrics.lines();
+
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int height = lines.size() * metrics.getHeight();
+
+        g.setColor(BACKGROUND);
+        g.fillRect(PADDING, PADDING, width + 2 * PADDING, height + 2 * PADDING);
+        g.setColor(TEXT);
+
+        for (int i = 0; i < lines.size(); i++) {
+            g.drawString(lines.get(i), 2 * PADDING, 2 * PADDING + i * metrics.getHeight() + metrics.getAscent());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.LongStream;
+
+// Rates how hard boards are, and generates boards within a band of difficulty
+//
+// boards of up to `MAX_OPTIMAL_TILES` tiles, or with pattern databases for their size, are rated by the
+// length of their optimal solution. larger boards are bracketed instead, between a lower bound (the sum
+// of the tiles' manhattan distances) and the length of the line by line `ReductionSolver` solution,
+// their score being the midpoint of the two.
+//
+// boards in a band are found by rating random walks from the solved board, whose length is adapted as
+// candidates come out too easy (longer) or too hard (shorter) so that most land in the band.
+// an optimal rating search stops once it passes the band, so rejecting a hard board costs little more
+// than accepting one. the boards are therefore not uniformly drawn from those in the band.
+//
+// a rater is not thread-safe, `generateBatch` gives every worker thread its own.
+//
+public class DifficultyRater {
+    // largest board rated optimally without pattern databases (as for hints)
+    public static final int MAX_OPTIMAL_TILES = 16;
+    // largest board rated at all, the line by line solution of anything larger takes too long
+    public static final int MAX_RATED_TILES = 100 * 100;
+    // the walk length changes by this fraction of itself after each candidate outside the band
+    private static final int WALK_STEP_DIVISOR = 32;
+
+    // a board's difficulty: the bounds on its optimal solution length, equal when it is known exactly
+    public static class Rating {
+        private final int lowerBound;
+        private final int upperBound;
+
+        public Rating(int lowerBound, int upperBound) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+
+        public int getLowerBound() {
+            return lowerBound;
+        }
+
+        public int getUpperBound() {
+            return upperBound;
+        }
+
+        // whether the optimal solution length is known exactly
+        //
+        public boolean isExact() {
+            return lowerBound == upperBound;
+        }
+
+        // the optimal solution length, or the midpoint of its bounds
+        //
+        public int getScore() {
+            return (lowerBound + upperBound) / 2;
+        }
+
+        @Override
+        public String toString() {
+            return isExact()
+                ? String.format("%d moves (optimal)", lowerBound)
+                : String.format("%d moves (between %d and %d)", getScore(), lowerBound, upperBound);
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    // the optimal solver, `null` when the boards are too large to be rated optimally
+    private final IdaStarSolver optimal;
+    private final ReductionSolver reduction = new ReductionSolver();
+
+    // a rater for `rows` x `cols` boards, using the pattern databases of that size if there are any
+    //
+    public DifficultyRater(int rows, int cols) {
+        this(rows, cols, loadPatterns(rows, cols));
+    }
+
+    // a rater for `rows` x `cols` boards using `patterns` (may be `null`)
+    //
+    public DifficultyRater(int rows, int cols, PatternHeuristic patterns) {
+        if (rows * cols > MAX_RATED_TILES) {
+            throw new IllegalArgumentException(String.format(
+                "Only boards of up to %d tiles can be rated", MAX_RATED_TILES
+            ));
+        }
+        this.rows = rows;
+        this.cols = cols;
+        optimal = rows * cols <= MAX_OPTIMAL_TILES || patterns != null ? new IdaStarSolver(patterns) : null;
+    }
+
+    private static PatternHeuristic loadPatterns(int rows, int cols) {
+        try {
+            return PatternHeuristic.forBoard(rows, cols);
+        } catch (IOException err) {
+            return null;
+        }
+    }
+
+    // whether boards are rated by their optimal solution length
+    //
+    public boolean isExact() {
+        return optimal != null;
+    }
+
+    // rates the (solvable) `board`
+    //
+    public Rating rate(Board board) {
+        if (optimal != null) {
+            int length = optimal.solve(board).length;
+            return new Rating(length, length);
+        }
+        return new Rating(manhattan(board), reduction.solve(board).length);
+    }
+
+    // compares the score of `board` with the band [`min`, `max`],
+    // returning `-1` when it is below (too easy), `1` when above (too hard) and `0` when within
+    //
+    // only searches optimal solutions of up to `max` moves
+    //
+    public int compare(Board board, int min, int max) {
+        int score;
+
+        if (optimal != null) {
+            if (optimal.estimate(board) > max) {
+                return 1;
+            }
+            int[] solution = optimal.solve(board, max);
+            if (solution == null) {
+                return 1;
+            }
+            score = solution.length;
+        } else {
+            score = rate(board).getScore();
+        }
+        return score < min ? -1 : score > max ? 1 : 0;
+    }
+
+    // generates a `rows` x `cols` board whose score lies in [`min`, `max`],
+    // reporting each candidate rejected to `rejected`
+    //
+    // doesn't return while the band is out of reach of the board (e.g. above its hardest layouts),
+    // but gives up with a `CancellationException` once the calling thread is interrupted
+    //
+    public Board generate(int min, int max, RandomGenerator random, IntConsumer rejected) {
+        checkBand(min, max);
+        int shortest = shortestWalk(isExact(), min);
+        int walk = max;
+
+        for (int attempt = 1; ; attempt++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            Board board = new Board(rows, cols);
+            PuzzleGenerator.randomWalk(board, walk, random);
+
+            int result = compare(board, min, max);
+            if (result == 0) {
+                return board;
+            }
+            walk = adapt(walk, result, shortest);
+            rejected.accept(attempt);
+        }
+    }
+
+    // generates the layouts of `count` boards whose score lies in [`min`, `max`]
+    // on a dedicated fork-join pool of `parallelism` worker threads, each with its own rater
+    //
+    // the workers share the length of the random walks they rate, and whichever boards are found first
+    // are kept, so unlike `PuzzleGenerator.generateBatch` a seed doesn't reproduce the same boards
+    //
+    public static int[][] generateBatch(
+        int rows, int cols, int min, int max, int count, long seed, int parallelism
+    ) {
+        checkBand(min, max);
+        PatternHeuristic patterns = loadPatterns(rows, cols);
+        ThreadLocal<DifficultyRater> raters = ThreadLocal.withInitial(
+            () -> new DifficultyRater(rows, cols, patterns)
+        );
+        int shortest = shortestWalk(rows * cols <= MAX_OPTIMAL_TILES || patterns != null, min);
+        AtomicInteger walk = new AtomicInteger(max);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.submit(
+                () -> LongStream.range(0, Long.MAX_VALUE)
+                    .parallel()
+                    .unordered()
+                    .mapToObj(index -> {
+                        SplittableRandom random = PuzzleGenerator.randomFor(seed, index);
+                        Board board = new Board(rows, cols);
+                        PuzzleGenerator.randomWalk(board, walk.get(), random);
+
+                        int result = raters.get().compare(board, min, max);
+                        if (result != 0) {
+                            walk.getAndUpdate(length -> adapt(length, result, shortest));
+                            return null;
+                        }
+                        return board.toArray();
+                    })
+                    .filter(layout -> layout != null)
+                    .limit(count)
+                    .toArray(int[][]::new)
+            ).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // the length of the next random walk after one of `walk` moves came out too easy (`result` of `-1`)
+    // or too hard (`1`): about 3% longer or shorter, at least a move, and never shorter than `shortest`
+    //
+    private static int adapt(int walk, int result, int shortest) {
+        return Math.max(shortest, walk - result * Math.max(1, walk / WALK_STEP_DIVISOR));
+    }
+
+    // the shortest walk worth rating for the band starting at `min`: when rated `exact`ly a walk of fewer moves
+    // is always too easy, as retracing it solves the board, but an estimated score can exceed the walk's length
+    //
+    private static int shortestWalk(boolean exact, int min) {
+        return exact ? min : 1;
+    }
+
+    // parses a band written `<min>-<max>` (e.g. `45-50`), or returns `null` when `band` is `null` or malformed
+    //
+    // the band has to start at `1` or more, as only the solved board scores `0`
+    //
+    public static int[] parseBand(String band) {
+        if (band == null) {
+            return null;
+        }
+        String[] bounds = band.trim().split("-");
+        try {
+            int min = Integer.parseInt(bounds[0].trim());
+            int max = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : min;
+
+            return bounds.length <= 2 && min >= 1 && min <= max ? new int[] { min, max } : null;
+        } catch (NumberFormatException err) {
+            return null;
+        }
+    }
+
+    private static void checkBand(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException(String.format("Invalid difficulty band %d-%d", min, max));
+        }
+    }
+
+    // the sum of the manhattan distances of every tile from its solved cell
+    //
+    private static int manhattan(Board board) {
+        int cols = board.getCols();
+        int total = 0;
+
+        for (int cell = 0; cell < board.size(); cell++) {
+            int tile = board.get(cell);
+
+            if (tile != 0) {
+                int goal = board.goalCell(tile);
+                total += Math.abs(cell / cols - goal / cols) + Math.abs(cell % cols - goal % cols);
+            }
+        }
+        return total;
+    }
+
+    // generates boards within a band, reporting the throughput and the spread of their scores:
+    // `java -cp bin DifficultyRater <rows> <cols> <min> <max> [count] [seed] [parallelism]`
+    //
+    // uses the pattern databases of the board's size, built first up to 4x4 and otherwise when they have been
+    // precomputed (see `PatternHeuristic.forBoard`)
+    //
+    public static void main(String[] args) {
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int min = Integer.parseInt(args[2]);
+        int max = Integer.parseInt(args[3]);
+        int count = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+        int parallelism = args.length > 6
+            ? Integer.parseInt(args[6])
+            : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int[][] layouts = generateBatch(rows, cols, min, max, count, seed, parallelism);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        DifficultyRater rater = new DifficultyRater(rows, cols);
+        // the scores are counted in at most 10 buckets of `width` consecutive scores
+        int width = (max - min + 10) / 10;
+        int[] scores = new int[(max - min) / width + 1];
+        long total = 0;
+
+        for (int[] layout : layouts) {
+            int score = rater.rate(new Board(rows, cols, layout)).getScore();
+            scores[(score - min) / width]++;
+            total += score;
+        }
+        System.out.printf(
+            "%d %dx%d boards rated %d-%d (%s) on %d threads in %.1f s, %.0f boards/min%n",
+            layouts.length, rows, cols, min, max, rater.isExact() ? "optimal" : "estimated",
+            parallelism, seconds, layouts.length / seconds * 60
+        );
+        for (int bucket = 0; bucket < scores.length; bucket++) {
+            int low = min + bucket * width;
+            System.out.printf("%11s %8d%n", width == 1
+                ? String.valueOf(low)
+                : String.format("%d-%d", low, Math.min(max, low + width - 1)), scores[bucket]);
+        }
+        System.out.printf("mean %.2f%n", layouts.length == 0 ? 0 : (double) total / layouts.length);
+    }
+}
@@ -0,0 +1,166 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.Arrays;
+
+// Event queue timing every event dispatched on the Swing event dispatch thread (EDT)
+//
+// dispatches longer than `STALL_MILLIS` are counted as stalls (`edt.stalls`), and emitted as
+// `GameEvents.EdtStall` JFR events. a daemon thread samples the EDT's stack while a dispatch
+// is overrunning, so a stall is reported with where it was stuck rather than just its length.
+//
+// a modal dialog runs an event loop of its own inside the dispatch that opened it, so every nesting level
+// is timed on its own: the outer dispatch's timer is paused while the nested loop waits for events or
+// dispatches them, and the time the dialog stays open isn't mistaken for a stall.
+//
+public class EdtWatchdog extends EventQueue {
+    // dispatches taking longer than this are stalls (the user notices the UI freezing)
+    private static final long STALL_MILLIS = 50;
+    // how often the watchdog thread checks on the current dispatch
+    private static final long CHECK_MILLIS = 10;
+    // number of frames of the EDT's stack kept for a stall
+    private static final int STACK_DEPTH = 6;
+
+    private static final Metrics.Timer DISPATCH = Metrics.timer("edt.dispatch");
+    private static final Metrics.Counter STALLS = Metrics.counter("edt.stalls");
+
+    // when the current dispatch started (ns), shifted forward by the time it was paused,
+    // `0` between dispatches and while paused
+    private volatile long dispatchStart;
+    // the stack sampled during the current dispatch, once it overran
+    private volatile String stalledIn;
+    private volatile Thread dispatchThread;
+
+    // the dispatches in progress, outermost first (only touched on the event dispatch thread):
+    // their start, shifted as `dispatchStart`, and their sampled stack while a nested one runs
+    private long[] starts = new long[4];
+    private String[] samples = new String[4];
+    private int depth;
+
+    private EdtWatchdog() {}
+
+    // replaces the system event queue with a watchdog (once, later calls do nothing)
+    //
+    public static synchronized void install() {
+        EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+
+        if (queue instanceof EdtWatchdog) {
+            return;
+        }
+        EdtWatchdog watchdog = new EdtWatchdog();
+        queue.push(watchdog);
+
+        Thread sampler = new Thread(watchdog::watch, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    // the wait for the next event of a nested event loop doesn't count towards the dispatch it runs in
+    // (modal dialogs pump every kind of event, through this overload)
+    //
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        if (!isNested()) {
+            return super.getNextEvent();
+        }
+        long paused = pause();
+        try {
+            return super.getNextEvent();
+        } finally {
+            resume(paused);
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        int level = depth;
+        long paused = level > 0 ? pause() : 0;
+
+        if (level == starts.length) {
+            starts = Arrays.copyOf(starts, level * 2);
+            samples = Arrays.copyOf(samples, level * 2);
+        }
+        depth++;
+        dispatchThread = Thread.currentThread();
+        stalledIn = null;
+        starts[level] = System.nanoTime();
+        dispatchStart = starts[level];
+
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            dispatchStart = 0;
+            long nanos = System.nanoTime() - starts[level];
+            String where = stalledIn != null ? stalledIn : "(not sampled)";
+            depth--;
+            DISPATCH.record(nanos);
+
+            if (nanos > STALL_MILLIS * 1_000_000) {
+                STALLS.increment();
+                Metrics.note("edt.lastStall", String.format(
+                    "%.0f ms in %s at %s", nanos / 1e6, event.getClass().getSimpleName(), where
+                ));
+
+                GameEvents.EdtStall stall = new GameEvents.EdtStall();
+                if (stall.shouldCommit()) {
+                    stall.event = event.toString();
+                    stall.dispatchTime = nanos;
+                    stall.stalledIn = where;
+                    stall.commit();
+                }
+            }
+            if (level > 0) {
+                resume(paused);
+            }
+        }
+    }
+
+    // whether the event dispatch thread is running a nested event loop, inside a dispatch
+    //
+    private boolean isNested() {
+        return depth > 0 && Thread.currentThread() == dispatchThread;
+    }
+
+    // stops timing the innermost dispatch in progress, returning when it was paused
+    //
+    private long pause() {
+        samples[depth - 1] = stalledIn;
+        dispatchStart = 0;
+        return System.nanoTime();
+    }
+
+    // goes on timing the innermost dispatch in progress, paused since `paused`
+    //
+    private void resume(long paused) {
+        starts[depth - 1] += System.nanoTime() - paused;
+        stalledIn = samples[depth - 1];
+        dispatchStart = starts[depth - 1];
+    }
+
+    // samples the EDT's stack once per overrunning dispatch, forever
+    //
+    private void watch() {
+        while (true) {
+            try {
+                Thread.sleep(CHECK_MILLIS);
+            } catch (InterruptedException err) {
+                return;
+            }
+            long start = dispatchStart;
+
+            if (start != 0 && stalledIn == null && System.nanoTime() - start > STALL_MILLIS * 1_000_000) {
+                StackTraceElement[] stack = dispatchThread.getStackTrace();
+                StringBuilder where = new StringBuilder();
+
+                for (int i = 0; i < Math.min(STACK_DEPTH, stack.length); i++) {
+                    where.append(i == 0 ? "" : " < ").append(stack[i].getClassName())
+                        .append('.').append(stack[i].getMethodName());
+                }
+                // the dispatch may have ended meanwhile, in which case the sample is of something else
+                if (dispatchStart == start) {
+                    stalledIn = where.toString();
+                }
+            }
+        }
+    }
+}
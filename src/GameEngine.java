@@ -0,0 +1,384 @@
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+// Headless game core: the board state, move history (undo / redo), timing and win detection
+//
+// has no dependency on Swing (or AWT) so games can be created, played and benchmarked
+// without a display, e.g. with `java.awt.headless=true` on a server JVM.
+// views such as `GamePanel` observe it through `GameListener` callbacks.
+//
+// not thread-safe: each engine is expected to be driven by a single thread at a time.
+//
+public class GameEngine {
+    private Board board;
+    private final List<GameListener> listeners = new ArrayList<GameListener>();
+
+    // directions (see `Board.UP` etc.) of the blank for every move made,
+    // its position being the moves counter
+    private MoveHistory history;
+    // moves made before the history starts, for games restored without their history
+    private int baseMoves;
+    // whether a slide of several tiles (see `slide`) counts as a single move rather than one per tile
+    private boolean slidesCountedAsOne;
+
+    // an instant representing the time when the first tile was moved (first move)
+    private Instant startTime;
+    // a duration representing the difference between `startTime` and the instant the puzzle was completed
+    private Duration timeTaken;
+
+    // creates an engine over a solved `rows` x `cols` board
+    //
+    public GameEngine(int rows, int cols) {
+        board = new Board(rows, cols);
+        history = new MoveHistory(board);
+    }
+
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    // the underlying board
+    //
+    // callers should treat it as read-only and go through the engine to make moves,
+    // otherwise the move counter, history and listeners will fall out of sync
+    //
+    public Board getBoard() {
+        return board;
+    }
+
+    public int getRows() {
+        return board.getRows();
+    }
+
+    public int getCols() {
+        return board.getCols();
+    }
+
+    // number of moves made (not counting undone ones),
+    // a slide of several tiles counting as one when `setSlidesCountedAsOne` is on
+    //
+    public int getMoves() {
+        return getTileMoves() - (slidesCountedAsOne ? history.getJoined() : 0);
+    }
+
+    // number of moves made (not counting undone ones), every tile of a slide counting as a move
+    //
+    public int getTileMoves() {
+        return baseMoves + history.getPosition();
+    }
+
+    // counts a slide of several tiles (see `slide`) as a single move, or as one move per tile
+    //
+    public void setSlidesCountedAsOne(boolean asOne) {
+        slidesCountedAsOne = asOne;
+    }
+
+    public boolean areSlidesCountedAsOne() {
+        return slidesCountedAsOne;
+    }
+
+    // the moves made (and undone) since the start of the game
+    //
+    // read-only for callers, like the board
+    //
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    public boolean isSolved() {
+        return board.isSolved();
+    }
+
+    // the instant of the first move or `null` if no move has been made yet
+    //
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    // the time taken to solve the puzzle, or `null` if it has not been solved yet
+    //
+    public Duration getTimeTaken() {
+        return timeTaken;
+    }
+
+    // changes the board's dimensions, leaving it solved (until the next `newGame`)
+    // does nothing when they are unchanged
+    //
+    // listeners are not notified: a new game is expected to be started straight away
+    //
+    public void resize(int rows, int cols) {
+        if (rows != board.getRows() || cols != board.getCols()) {
+            board = new Board(rows, cols);
+            history = new MoveHistory(board);
+            baseMoves = 0;
+        }
+    }
+
+    // starts a new game with a board shuffled using `mode`
+    //
+    public void newGame(PuzzleGenerator.Mode mode) {
+        newGame(mode, ThreadLocalRandom.current());
+    }
+
+    public void newGame(PuzzleGenerator.Mode mode, RandomGenerator random) {
+        PuzzleGenerator.generate(board, mode, random);
+        restart();
+    }
+
+    // starts a new game from the given row-major `layout`
+    //
+    public void newGame(int[] layout) {
+        board.setTiles(layout);
+        restart();
+    }
+
+    // restores a saved game (see `GameFile`): the board of the engine's size is set to `layout`,
+    // reached after `baseMoves` moves that can't be undone followed by the first `position` of
+    // the recorded `moves` (the rest being undone moves that can be redone)
+    //
+    // `joined` tells which moves continue the slide of the move before them (`null` when none do),
+    // `elapsed` is the time since the first move (`null` if there was none)
+    // and `won` whether that is the time the puzzle was solved in
+    //
+    public void restore(
+        int[] layout, int baseMoves, int[] moves, boolean[] joined, int position, Duration elapsed, boolean won
+    ) {
+        if (baseMoves < 0 || position < 0 || position > moves.length) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid position %d + %d of %d recorded moves", baseMoves, position, moves.length
+            ));
+        }
+        if (joined != null && !areSlides(moves, joined)) {
+            throw new IllegalArgumentException("Joined moves in different directions in the history");
+        }
+        // rebuilds the history from its starting layout, found by taking back the applied moves
+        Board start = new Board(board.getRows(), board.getCols(), layout);
+        for (int i = position - 1; i >= 0; i--) {
+            if (start.move(moves[i] ^ 1) == -1) {
+                throw new IllegalArgumentException("Illegal move " + i + " in the history");
+            }
+        }
+        history.clear(start);
+        for (int i = 0; i < moves.length; i++) {
+            if (start.move(moves[i]) == -1) {
+                throw new IllegalArgumentException("Illegal move " + i + " in the history");
+            }
+            history.push(moves[i], start, joined != null && joined[i]);
+        }
+        history.seek(position, start);
+        board.setTiles(layout);
+        this.baseMoves = baseMoves;
+
+        startTime = elapsed == null ? null : Instant.now().minus(elapsed);
+        timeTaken = won ? elapsed : null;
+
+        for (GameListener listener : listeners) {
+            listener.boardChanged(this);
+        }
+    }
+
+    // clears the move counter, history and timer of the current board
+    //
+    private void restart() {
+        history.clear(board);
+        baseMoves = 0;
+        startTime = null;
+        timeTaken = null;
+
+        for (GameListener listener : listeners) {
+            listener.boardChanged(this);
+        }
+    }
+
+    // writes the directions the blank can currently move in into `out` (of length >= 4)
+    // returns the number of legal moves written
+    //
+    public int legalMoves(int[] out) {
+        int count = 0;
+
+        for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+            if (board.canMove(dir)) {
+                out[count++] = dir;
+            }
+        }
+        return count;
+    }
+
+    // whether every move `joined` to the one before it in `moves` goes in the same direction,
+    // so that they make up slides along a row or column
+    //
+    public static boolean areSlides(int[] moves, boolean[] joined) {
+        if (joined.length != moves.length || joined.length > 0 && joined[0]) {
+            return false;
+        }
+        for (int i = 1; i < moves.length; i++) {
+            if (joined[i] && moves[i] != moves[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // slides the tile numbered `tile` toward the blank, along with every tile between them,
+    // when it is in the blank's row or column, as a single update of the board:
+    // the listeners are told once (see `GameListener.tilesSlid`) and the win checked once
+    //
+    // the moves are recorded one per tile, joined into a single step for `undo` and `redo`,
+    // and counted as one move or one per tile (see `setSlidesCountedAsOne`)
+    // returns the number of tiles slid, `0` when the tile isn't in line with the blank
+    //
+    public int slide(int tile) {
+        int dir = board.lineDirectionOf(tile);
+
+        if (dir == -1) {
+            return 0;
+        }
+        int count = board.distanceTo(tile);
+        int to = board.getBlank();
+
+        if (startTime == null) {
+            startTime = Instant.now();
+        }
+        for (int i = 0; i < count; i++) {
+            board.move(dir);
+            history.push(dir, board, i > 0);
+        }
+        fireMoved(board.getBlank(), to, count);
+        checkWon();
+        return count;
+    }
+
+    // slides the tile numbered `tile` into the blank, if it is beside it
+    // returns whether the move was legal (and therefore made)
+    //
+    public boolean moveTile(int tile) {
+        int dir = board.directionOf(tile);
+        return dir != -1 && move(dir);
+    }
+
+    // moves the blank tile in direction `dir`
+    // returns whether the move was legal (and therefore made)
+    //
+    public boolean move(int dir) {
+        int to = board.move(dir);
+
+        if (to == -1) {
+            return false;
+        }
+        if (startTime == null) {
+            startTime = Instant.now();
+        }
+        history.push(dir, board);
+
+        fireMoved(board.getBlank(), to);
+        checkWon();
+        return true;
+    }
+
+    // takes back the last move, or the whole of the last slide (see `slide`)
+    // returns whether there was a move to take back
+    //
+    public boolean undo() {
+        int to = board.getBlank();
+        int count = 0;
+
+        do {
+            int dir = history.undo();
+            if (dir == -1) {
+                break;
+            }
+            board.move(dir ^ 1);
+            count++;
+        } while (history.isJoined(history.getPosition()));
+
+        if (count == 0) {
+            return false;
+        }
+        timeTaken = null;
+
+        fireMoved(board.getBlank(), to, count);
+        return true;
+    }
+
+    // makes the last move (or slide) taken back again
+    // returns whether there was a move to redo
+    //
+    public boolean redo() {
+        int to = board.getBlank();
+        int dir = history.redo();
+
+        if (dir == -1) {
+            return false;
+        }
+        if (startTime == null) {
+            // a saved game restored without its time
+            startTime = Instant.now();
+        }
+        board.move(dir);
+        int count = 1;
+
+        while (history.getPosition() < history.getLength() && history.isJoined(history.getPosition())) {
+            board.move(history.redo());
+            count++;
+        }
+        fireMoved(board.getBlank(), to, count);
+        checkWon();
+        return true;
+    }
+
+    // undoes or redoes moves until `move` moves are applied (from `0` up to the history's length)
+    // notifying the listeners once, as a board change, rather than for every move
+    //
+    public void jumpTo(int move) {
+        history.seek(move, board);
+        timeTaken = null;
+
+        if (startTime == null) {
+            startTime = Instant.now();
+        }
+
+        for (GameListener listener : listeners) {
+            listener.boardChanged(this);
+        }
+        checkWon();
+    }
+
+    // the board now equals the sorted/target end board
+    // meaning the puzzle has been finished / won
+    //
+    private void checkWon() {
+        if (board.isSolved() && history.getPosition() > 0) {
+            timeTaken = Duration.between(startTime, Instant.now());
+
+            for (GameListener listener : listeners) {
+                listener.gameWon(this);
+            }
+        }
+    }
+
+    private void fireMoved(int from, int to) {
+        for (GameListener listener : listeners) {
+            listener.tileMoved(this, from, to);
+        }
+    }
+
+    // tells the listeners that `count` tiles slid, the blank going from `to` to `from`
+    //
+    private void fireMoved(int from, int to, int count) {
+        if (count == 1) {
+            fireMoved(from, to);
+            return;
+        }
+        for (GameListener listener : listeners) {
+            listener.tilesSlid(this, from, to);
+        }
+    }
+}
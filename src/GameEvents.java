@@ -0,0 +1,119 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Custom JDK Flight Recorder events of the game's hot paths
+//
+// recorded along with the `Metrics` of the same operations, e.g. with
+// `java -XX:StartFlightRecording=filename=slider.jfr -cp bin App`
+// and viewed with JDK Mission Control or `jfr print --categories "Number Slider" slider.jfr`.
+// events are only committed while a recording has them enabled, otherwise they cost next to nothing.
+//
+public class GameEvents {
+    private GameEvents() {}
+
+    @Name("slider.Move")
+    @Label("Move")
+    @Description("A tile clicked on the board and the resulting move, if legal")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class Move extends Event {
+        @Label("Tile")
+        public int tile;
+
+        @Label("Moved")
+        public boolean moved;
+    }
+
+    @Name("slider.Shuffle")
+    @Label("Shuffle")
+    @Description("A board shuffled by the puzzle generator")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class Shuffle extends Event {
+        @Label("Rows")
+        public int rows;
+
+        @Label("Columns")
+        public int cols;
+
+        @Label("Mode")
+        public String mode;
+    }
+
+    @Name("slider.FontFit")
+    @Label("Font Fit")
+    @Description("A search for the largest tile font fitting a label, made on a font cache miss")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class FontFit extends Event {
+        @Label("Text")
+        public String text;
+
+        @Label("Width")
+        public int width;
+
+        @Label("Height")
+        public int height;
+
+        @Label("Font Size")
+        public int size;
+    }
+
+    @Name("slider.Rebuild")
+    @Label("Rebuild")
+    @Description("The game panel reset to a new or loaded game, or the app's screen rebuilt")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class Rebuild extends Event {
+        @Label("Reason")
+        public String reason;
+
+        @Label("Rows")
+        public int rows;
+
+        @Label("Columns")
+        public int cols;
+    }
+
+    @Name("slider.Solve")
+    @Label("Solve")
+    @Description("A run of a solver, for a hint or a solution")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class Solve extends Event {
+        @Label("Solver")
+        public String solver;
+
+        @Label("Rows")
+        public int rows;
+
+        @Label("Columns")
+        public int cols;
+
+        @Label("Solution Moves")
+        public int moves;
+    }
+
+    @Name("slider.EdtStall")
+    @Label("EDT Stall")
+    @Description("An event dispatched on the Swing event dispatch thread that took too long")
+    @Category("Number Slider")
+    @StackTrace(false)
+    public static class EdtStall extends Event {
+        @Label("Event")
+        public String event;
+
+        @Label("Dispatch Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long dispatchTime;
+
+        @Label("Stalled In")
+        @Description("The top of the EDT's stack, sampled while it was stalled")
+        public String stalledIn;
+    }
+}
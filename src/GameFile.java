@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+
+// A saved game: the board, moves counter, timer and (optionally) the move history of a `GameEngine`
+//
+// stored big-endian, in this order:
+//     - the magic number "SLSV" and the format `VERSION` (ints)
+//     - the number of rows and columns (ints)
+//     - the flags (byte, see `WON` and `HISTORY`)
+//     - the number of moves made (int)
+//     - the milliseconds since the first move, or until the puzzle was solved when `WON`,
+//       or `-1` when no move was made yet (long)
+//     - the board's tiles, packed by `BoardCodec`
+//     - when `HISTORY` is set: the number of recorded moves and how many of them are applied (ints)
+//       followed by the moves packed by `MoveHistory.writeTo`
+//     - when `SLIDES` is also set: which moves are joined into slides, packed by `MoveHistory.writeJoinedTo`
+//       (older readers ignore it, seeing every move on its own)
+//
+// the parts are gathered straight from their buffers into a single channel write,
+// and files are read back through a read-only memory mapping.
+//
+public class GameFile {
+    // "SLSV" in ASCII, identifies the file format
+    private static final int MAGIC = 0x534C5356;
+    private static final int VERSION = 1;
+    // size of everything before the tiles
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + 1 + Integer.BYTES + Long.BYTES;
+
+    // flags: the time is the time taken to solve the puzzle / the move history follows the tiles /
+    // the slides the moves are joined into follow the history
+    private static final int WON = 1;
+    private static final int HISTORY = 2;
+    private static final int SLIDES = 4;
+
+    private final int rows;
+    private final int cols;
+    private final int[] layout;
+    private final int moves;
+    private final Duration elapsed;
+    private final boolean won;
+    // the recorded moves, or `null` when the history wasn't saved, and how many of them are applied
+    private final int[] history;
+    private final int position;
+    // which recorded moves are joined to the move before them, `null` when none are
+    private final boolean[] joined;
+
+    private GameFile(
+        int rows, int cols, int[] layout, int moves,
+        Duration elapsed, boolean won, int[] history, int position, boolean[] joined
+    ) {
+        this.rows = rows;
+        this.cols = cols;
+        this.layout = layout;
+        this.moves = moves;
+        this.elapsed = elapsed;
+        this.won = won;
+        this.history = history;
+        this.position = position;
+        this.joined = joined;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public boolean hasHistory() {
+        return history != null;
+    }
+
+    // writes the game of `engine` to `path` (replacing it atomically), along with its move history if `withHistory`
+    //
+    public static void save(GameEngine engine, Path path, boolean withHistory) throws IOException {
+        Board board = engine.getBoard();
+        MoveHistory moveHistory = engine.getHistory();
+        Duration elapsed = engine.getTimeTaken() != null
+            ? engine.getTimeTaken()
+            : engine.getStartTime() != null
+            ? Duration.between(engine.getStartTime(), Instant.now())
+            : null;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(board.getRows()).putInt(board.getCols());
+        boolean withSlides = withHistory && moveHistory.hasJoined();
+        header.put((byte) (
+            (engine.getTimeTaken() != null ? WON : 0) | (withHistory ? HISTORY : 0) | (withSlides ? SLIDES : 0)
+        ));
+        // the moves before the history are found from the moves made by tile, while without a history
+        // the counter is carried on as shown
+        header.putInt(withHistory ? engine.getTileMoves() : engine.getMoves());
+        header.putLong(elapsed == null ? -1 : elapsed.toMillis());
+        header.flip();
+
+        // the tiles and moves are packed once into direct buffers that the channel writes without copying
+        ByteBuffer tiles = ByteBuffer.allocateDirect(BoardCodec.recordSize(board.size()));
+        BoardCodec.pack(board.toArray(), tiles);
+        tiles.flip();
+
+        ByteBuffer moves = ByteBuffer.allocateDirect(
+            (withHistory ? 2 * Integer.BYTES + moveHistory.packedLength() * Long.BYTES : 0)
+            + (withSlides ? moveHistory.joinedLength() * Long.BYTES : 0)
+        );
+        if (withHistory) {
+            moves.putInt(moveHistory.getLength()).putInt(moveHistory.getPosition());
+            moveHistory.writeTo(moves);
+            if (withSlides) {
+                moveHistory.writeJoinedTo(moves);
+            }
+            moves.flip();
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer[] parts = { header, tiles, moves };
+
+                while (moves.hasRemaining() || tiles.hasRemaining() || header.hasRemaining()) {
+                    channel.write(parts);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException err) {
+            // leaves no partial file behind, the saved game (if any) being untouched
+            Files.deleteIfExists(temp);
+            throw err;
+        }
+    }
+
+    // reads the game saved at `path`
+    //
+    public static GameFile load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC) {
+                throw new IOException("Not a saved game: " + path);
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("Unsupported saved game version %d: %s", version, path));
+            }
+            int rows = mapped.getInt();
+            int cols = mapped.getInt();
+            int flags = mapped.get();
+            int moves = mapped.getInt();
+            long millis = mapped.getLong();
+
+            if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE / Integer.BYTES) {
+                throw new IOException(String.format("Invalid board size %dx%d: %s", rows, cols, path));
+            }
+            int[] layout = new int[rows * cols];
+            int[] history = null;
+            int position = 0;
+            boolean[] joined = null;
+
+            try {
+                BoardCodec.unpack(mapped, layout);
+
+                if ((flags & HISTORY) != 0) {
+                    int length = mapped.getInt();
+                    position = mapped.getInt();
+                    if (position < 0 || position > length || position > moves
+                        || length > (long) mapped.remaining() * 4) {
+                        throw new IOException("Corrupt move history: " + path);
+                    }
+                    history = new int[length];
+                    MoveHistory.readFrom(mapped, history);
+
+                    if ((flags & SLIDES) != 0) {
+                        joined = new boolean[length];
+                        MoveHistory.readJoinedFrom(mapped, joined);
+                    }
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException err) {
+                throw new IOException("Truncated saved game: " + path, err);
+            }
+            BoardValidator.Verdict verdict = BoardValidator.validate(rows, cols, layout);
+            if (!verdict.isValid()) {
+                throw new IOException(String.format("Corrupt board (%s): %s", verdict.getProblem(), path));
+            }
+            if (!verdict.isSolvable()) {
+                throw new IOException("Unsolvable board: " + path);
+            }
+            if (history != null && !isLegal(new Board(rows, cols, layout), history, position)
+                || joined != null && !GameEngine.areSlides(history, joined)) {
+                throw new IOException("Corrupt move history: " + path);
+            }
+            return new GameFile(
+                rows, cols, layout, moves,
+                millis < 0 ? null : Duration.ofMillis(millis),
+                (flags & WON) != 0,
+                history, position, joined
+            );
+        }
+    }
+
+    // whether all of `moves` can be played on `board`, which is after the first `position` of them
+    //
+    private static boolean isLegal(Board board, int[] moves, int position) {
+        for (int i = position - 1; i >= 0; i--) {
+            if (board.move(moves[i] ^ 1) == -1) {
+                return false;
+            }
+        }
+        for (int dir : moves) {
+            if (board.move(dir) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // restores this game into `engine`, which must already be of the same size (see `GameEngine.resize`)
+    //
+    // without a saved history, the game continues from the saved board with its moves counter but nothing to undo
+    //
+    public void restore(GameEngine engine) {
+        if (history != null) {
+            engine.restore(layout, moves - position, history, joined, position, elapsed, won);
+        } else {
+            engine.restore(layout, moves, new int[0], null, 0, elapsed, won);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+// Callbacks fired by a `GameEngine` as its game progresses
+//
+// all methods are called synchronously on the thread that changed the engine
+//
+public interface GameListener {
+    // a single tile was slid from cell `from` into the (previously blank) cell `to`
+    // leaving the blank tile at `from`
+    //
+    default void tileMoved(GameEngine engine, int from, int to) {}
+
+    // the tiles from cell `from` up to (but excluding) cell `to`, in a row or column, each slid one cell
+    // toward the (previously blank) cell `to`, leaving the blank tile at `from` (see `GameEngine.slide`)
+    //
+    // redraws the whole board unless overridden
+    //
+    default void tilesSlid(GameEngine engine, int from, int to) {
+        boardChanged(engine);
+    }
+
+    // the whole board was replaced (e.g. a new game was generated)
+    //
+    default void boardChanged(GameEngine engine) {}
+
+    // the last move left the board in its solved configuration
+    //
+    default void gameWon(GameEngine engine) {}
+}
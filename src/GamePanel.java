@@ -1,131 +1,565 @@
-import java.util.Arrays;
-import java.util.ArrayList;
-
-import java.time.Instant;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import java.awt.*;
 import java.awt.event.*;
 
 import javax.swing.*;
 
-// Panel displaying solely the game board's matrix of buttons
+// Panel displaying solely the game board's matrix of tiles
+//
+// a thin view over a headless `GameEngine`:
+// clicks are forwarded to the engine and the tiles are updated from its events.
+// the tiles are either a grid of `JButton`s or painted by a single `BoardCanvas` (see `Renderer`)
 //
-public class GamePanel extends JPanel implements ActionListener {
+// dragging over the tiles moves them as if each was clicked in turn, so the blank follows the pointer.
+// with slides on (see `SlideMode`) any tile in the blank's row or column can be clicked, the tiles up to
+// the blank sliding along with it as a single update that redraws only that line
+//
+// new boards are shuffled in the background (see `BackgroundTask`), the previous board staying
+// on screen (but ignoring clicks) with the shuffle's progress shown until the new one is ready
+//
+public class GamePanel extends JPanel implements ActionListener, GameListener {
+    // the ways the tiles can be rendered
+    public enum Renderer {
+        // one `JButton` per tile in a `GridLayout`
+        BUTTONS,
+        // a single `BoardCanvas` painting every tile
+        PAINTED;
+
+        // parses a renderer from its (case-insensitive) name
+        // falling back to `BUTTONS` for unknown values
+        //
+        public static Renderer parse(String name) {
+            for (Renderer renderer : values()) {
+                if (renderer.name().equalsIgnoreCase(name)) {
+                    return renderer;
+                }
+            }
+            return BUTTONS;
+        }
+    }
+
+    // which tiles can be clicked (or dragged over), and how the moves of several tiles are counted
+    public enum SlideMode {
+        // only the tiles beside the blank tile
+        OFF,
+        // any tile in the blank's row or column, sliding those between them along, each tile counting as a move
+        TILES,
+        // any tile in the blank's row or column, a slide of any number of tiles counting as one move
+        ONE;
+
+        // parses a slide mode from its (case-insensitive) name
+        // falling back to `OFF` for unknown values
+        //
+        public static SlideMode parse(String name) {
+            for (SlideMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return OFF;
+        }
+    }
+
+    // the ways the board is shown
+    private enum View {
+        // the `BUTTONS` renderer
+        BUTTONS,
+        // the `PAINTED` renderer, with the cells stretched over the panel
+        PAINTED,
+        // a painted board with fixed size cells within a scroll pane, for large boards
+        SCROLLED,
+    }
+
     // reference to the main app panel/wrapper panel
     private App app;
-    // number of moves counter
-    private int moves;
+    // how the board is currently shown
+    private View view;
+    // the canvas painting the tiles, created the first time a painted view is shown
+    private BoardCanvas canvas;
+    // the viewport scrolling over the canvas of large boards, created the first time one is shown
+    private JScrollPane scroller;
+    // the game state (board, moves, timing) being displayed
+    private GameEngine engine;
+    // timer driving the replay of a solution, if one is playing
+    private Timer replayTimer;
+    // the shuffle of the next board, while it is being generated
+    private BackgroundTask<int[]> shuffle;
+    // buttons removed when the board shrank, reused when it grows again
+    private final List<JButton> spareButtons = new ArrayList<JButton>();
+    // whether tiles were moved by dragging since the mouse was pressed,
+    // so that the click ending the drag doesn't also move the tile under the pointer
+    private boolean dragged;
+    // moves the tiles dragged over, shared by every button
+    private final MouseAdapter dragger = new MouseAdapter() {
+        @Override
+        public void mousePressed(MouseEvent event) {
+            dragged = false;
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent event) {
+            Point point = SwingUtilities.convertPoint(event.getComponent(), event.getPoint(), GamePanel.this);
+            Component button = getComponentAt(point);
 
-    private int[][] board;
-    private final int[][] COMPLETED;
+            if (!(button instanceof JButton) || isShuffling() || ((JButton) button).getText().isEmpty()) {
+                return;
+            }
+            int tile = Integer.parseInt(((JButton) button).getText());
 
-    // an instant representing the time when the first tile was clicked (first move)
-    private Instant startTime;
-    // a duration representing the difference between `startTime` and the instant when the user has completed the puzzle
-    private Duration timeTaken;
+            if (canMove(engine, tile, isSliding())) {
+                moveTile(engine, tile, isSliding());
+                dragged = true;
+            }
+        }
+    };
 
     // game tile background colors
-    private static final Color CORRECT_COLOR = new Color(60, 255, 80);
+    protected static final Color CORRECT_COLOR = new Color(60, 255, 80);
     private static final Color ZERO_COLOR = new Color(28, 28, 32);
-    private static final Color DEFAULT_COLOR = new Color(210, 144, 144);
+    protected static final Color DEFAULT_COLOR = new Color(210, 144, 144);
     // game tile outline color
-    private static final Color OUTLINE_COLOR = Color.BLACK;
+    protected static final Color OUTLINE_COLOR = Color.BLACK;
     // font colors
     protected static final Color TEXT_COLOR = Color.WHITE;
     private static final Color WIN_COLOR = Color.YELLOW;
+    // delay between replay ticks (ms) and the most ticks a replay should take,
+    // longer solutions are replayed several moves per tick
+    private static final int REPLAY_DELAY = 40;
+    private static final int REPLAY_TICKS = 250;
+    // size of the cells (px) of large boards and of the viewport scrolling over them
+    private static final int LARGE_CELL_SIZE = 48;
+    private static final int VIEWPORT_SIZE = 500;
     // font used on the game tiles (buttons)
     protected static final Font BUTTON_FONT = new Font("Verdana", Font.BOLD, 30);
+    // refits a button's font every time it is resized, shared by all buttons as it holds no state
+    private static final ButtonListener FONT_FITTER = new ButtonListener();
+
+    private static final Metrics.Timer MOVES = Metrics.timer("move");
+    private static final Metrics.Timer REBUILDS = Metrics.timer("rebuild");
 
     public GamePanel(App app) {
         this.app = app;
-        moves = 0;
 
-        // 1D array listing all the numbers present in the game
-        int[] allNumbers = generateNumbers(app.rows, app.cols);
+        engine = new GameEngine(app.rows, app.cols);
+        engine.setSlidesCountedAsOne(app.slideMode == SlideMode.ONE);
+        engine.addListener(this);
 
-        // a constant 2D array representing the game state when the game is solved
-        // i.e. it is sorted (unshuffled)
-        COMPLETED = chunk(allNumbers);
+        setBackground(OUTLINE_COLOR);
+        setView(viewFor(app));
 
-        // 2D array representing the current game state / board
-        // generated from shuffling the end-goal sorted array and playng valid moves randomly backwards.
-        //
-        // re-evaluates the chunking as `shuffle` modifies in-place so we do not want to end up modifying `COMPLETED` too
-        board = chunk(allNumbers);
-        // shuffles a random amount of times/moves between `[500, 700]`
-        shuffle((int) Math.pow(app.rows * app.cols, 2));
+        // shuffled into a random (but always solvable) configuration using the app's selected generator
+        reset();
+    }
 
-        setBackground(OUTLINE_COLOR);
-        // sets the layout of a panel to be a grid layout
-        // increases responsiveness, (row x cols sized grid)
-        setLayout(new GridLayout(app.rows, app.cols));
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    // the view the app's current board should be shown with
+    //
+    private static View viewFor(App app) {
+        if (app.isLargeBoard()) {
+            return View.SCROLLED;
+        }
+        return app.renderer == Renderer.PAINTED ? View.PAINTED : View.BUTTONS;
+    }
+
+    // replaces the current view (if different) by `next`
+    //
+    private void setView(View next) {
+        if (next == view) {
+            return;
+        }
+        if (view == View.BUTTONS) {
+            for (Component button : getComponents()) {
+                spareButtons.add((JButton) button);
+            }
+        }
+        removeAll();
+        view = next;
+
+        if (view == View.BUTTONS) {
+            layoutButtons();
+            return;
+        }
+        if (canvas == null) {
+            canvas = new BoardCanvas(engine, isSliding());
+        }
+        setLayout(new BorderLayout());
+
+        if (view == View.PAINTED) {
+            canvas.setCellSize(0);
+            add(canvas);
+        } else {
+            if (scroller == null) {
+                scroller = new JScrollPane();
+                scroller.setPreferredSize(new Dimension(VIEWPORT_SIZE, VIEWPORT_SIZE));
+                scroller.getVerticalScrollBar().setUnitIncrement(LARGE_CELL_SIZE);
+                scroller.getHorizontalScrollBar().setUnitIncrement(LARGE_CELL_SIZE);
+            }
+            canvas.setCellSize(LARGE_CELL_SIZE);
+            scroller.setViewportView(canvas);
+            add(scroller);
+        }
+    }
 
+    // sizes the grid of buttons to the board's dimensions
+    //
+    // only the buttons for the difference in size are added (from the pool of spare buttons when possible)
+    // or removed (into that pool)
+    //
+    private void layoutButtons() {
+        if (getLayout() instanceof GridLayout) {
+            GridLayout layout = (GridLayout) getLayout();
+            layout.setRows(app.rows);
+            layout.setColumns(app.cols);
+        } else {
+            // sets the layout of a panel to be a grid layout
+            // increases responsiveness, (row x cols sized grid)
+            setLayout(new GridLayout(app.rows, app.cols));
+        }
+        int size = engine.getBoard().size();
+
+        while (getComponentCount() > size) {
+            JButton button = (JButton) getComponent(getComponentCount() - 1);
+            remove(button);
+            spareButtons.add(button);
+        }
         // setups the grid by adding all the buttons for the number matrix
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                add(createButton(i, j));
+        while (getComponentCount() < size) {
+            int cell = getComponentCount();
+            add(spareButtons.isEmpty()
+                ? createButton(cell)
+                : spareButtons.remove(spareButtons.size() - 1));
+        }
+    }
+
+    // starts a new game at the app's (possibly changed) dimensions
+    // once its board has been shuffled in the background, cancelling any shuffle still in progress
+    //
+    // the board is generated within the app's band of difficulty, if it has one
+    //
+    public void reset() {
+        cancelShuffle();
+        stopReplay();
+
+        int rows = app.rows;
+        int cols = app.cols;
+        PuzzleGenerator.Mode mode = app.generatorMode;
+        int[] band = rows * cols <= DifficultyRater.MAX_RATED_TILES ? app.difficulty : null;
+
+        // rating the boards first builds the pattern databases of the size, if they are missing
+        app.movesLabel.setText(band != null && PatternHeuristic.needsBuilding(rows, cols)
+            ? "Shuffling... (building pattern databases, only once)"
+            : "Shuffling...");
+        app.movesLabel.setForeground(App.LABEL_COLOR);
+
+        setShuffle(BackgroundTask.start(
+            progress -> {
+                if (band != null) {
+                    return new DifficultyRater(rows, cols)
+                        .generate(band[0], band[1], ThreadLocalRandom.current(), rejected -> {})
+                        .toArray();
+                }
+                Board board = new Board(rows, cols);
+                PuzzleGenerator.generate(board, mode, ThreadLocalRandom.current(), progress);
+                return board.toArray();
+            },
+            percent -> app.movesLabel.setText(String.format("Shuffling... %d%%", percent)),
+            layout -> {
+                setShuffle(null);
+                startGame(layout);
+            },
+            err -> {
+                // the previous board stays in play
+                setShuffle(null);
+                app.movesLabel.setText("Moves: " + engine.getMoves());
+                JOptionPane.showInternalMessageDialog(null, "Could not shuffle a new board: " + err);
+            }
+        ));
+    }
+
+    // whether a new board is still being shuffled (the board shown being the previous one)
+    //
+    public boolean isShuffling() {
+        return shuffle != null;
+    }
+
+    // stops the shuffle in progress, if any
+    //
+    public void cancelShuffle() {
+        if (shuffle != null) {
+            shuffle.cancel();
+            setShuffle(null);
+        }
+    }
+
+    // records the shuffle in progress (`null` once there is none),
+    // the canvas ignoring clicks meanwhile (the buttons check `isShuffling` themselves)
+    //
+    private void setShuffle(BackgroundTask<int[]> next) {
+        shuffle = next;
+        if (canvas != null) {
+            canvas.setEnabled(next == null);
+        }
+    }
+
+    // starts the game of the shuffled `layout` in place
+    //
+    // the existing tiles are reused (see `layoutButtons`)
+    // and the panel is only laid out again when the dimensions change
+    //
+    private void startGame(int[] layout) {
+        GameEvents.Rebuild event = new GameEvents.Rebuild();
+        event.begin();
+        long start = REBUILDS.start();
+
+        boolean resized = resize();
+
+        // updates every tile through `boardChanged`
+        engine.newGame(layout);
+        relayout(resized);
+
+        REBUILDS.stop(start);
+        commit(event, "restart");
+    }
+
+    // continues the saved game `file`, in place like `startGame`
+    // (the app's dimensions having been set to the file's)
+    //
+    public void load(GameFile file) {
+        GameEvents.Rebuild event = new GameEvents.Rebuild();
+        event.begin();
+        long start = REBUILDS.start();
+
+        cancelShuffle();
+        stopReplay();
+        boolean resized = resize();
+
+        file.restore(engine);
+        relayout(resized);
+
+        REBUILDS.stop(start);
+        commit(event, "load");
+    }
+
+    // commits a rebuild `event` of the current board, if it is being recorded
+    //
+    private void commit(GameEvents.Rebuild event, String reason) {
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.rows = engine.getRows();
+            event.cols = engine.getCols();
+            event.commit();
+        }
+    }
+
+    // resizes the engine's board and the view to the app's dimensions
+    // returning whether they changed
+    //
+    private boolean resize() {
+        boolean resized = app.rows != engine.getRows() || app.cols != engine.getCols();
+        engine.resize(app.rows, app.cols);
+
+        if (resized) {
+            View next = viewFor(app);
+
+            if (next != view) {
+                setView(next);
+            } else if (view == View.BUTTONS) {
+                layoutButtons();
+            } else if (view == View.SCROLLED) {
+                canvas.setCellSize(LARGE_CELL_SIZE);
+            }
+        }
+        return resized;
+    }
+
+    // lays the panel out again after the board was `resized`
+    //
+    private void relayout(boolean resized) {
+        if (resized) {
+            revalidate();
+            repaint();
+        }
+    }
+
+    // replays `moves` (directions of the blank, e.g. from a `Solver`) on the board
+    //
+    public void replay(int[] moves) {
+        int[] next = { 0 };
+
+        startReplay(moves.length, () -> engine.move(moves[next[0]++]));
+    }
+
+    // replays the game so far from its start, by rewinding to the first move and redoing every move
+    //
+    // a redo replays a whole slide, and the moves before a restored history (see `GameEngine.restore`)
+    // can't be replayed, so the steps are the applied moves of the history with each slide counting as one
+    //
+    public void replayHistory() {
+        MoveHistory history = engine.getHistory();
+        int moves = history.getPosition() - history.getJoined();
+
+        stopReplay();
+        engine.jumpTo(0);
+        startReplay(moves, engine::redo);
+    }
+
+    // makes `count` moves with `step` over time (a timer tick at a time)
+    //
+    private void startReplay(int count, Runnable step) {
+        stopReplay();
+
+        int perTick = Math.max(1, count / REPLAY_TICKS);
+        int[] made = { 0 };
+
+        replayTimer = new Timer(REPLAY_DELAY, event -> {
+            for (int k = 0; k < perTick && made[0] < count; k++, made[0]++) {
+                step.run();
+            }
+            if (made[0] == count) {
+                stopReplay();
             }
+        });
+        replayTimer.start();
+    }
+
+    // stops the replay in progress, if any
+    //
+    public void stopReplay() {
+        if (replayTimer != null) {
+            replayTimer.stop();
+            replayTimer = null;
         }
     }
 
+    // whether tiles in line with the blank slide (see `SlideMode`)
+    //
+    private boolean isSliding() {
+        return app.slideMode != SlideMode.OFF;
+    }
+
     // handles move when the buttons are clicked
     //
     public void actionPerformed(ActionEvent event) {
         Object component = event.getSource();
 
-        if (component instanceof JButton) {
+        if (component instanceof JButton && !isShuffling() && !dragged) {
             JButton button = (JButton) component;
             int num = Integer.parseInt(button.getText());
 
-            // the click is only valid
-            // if the clicked number is beside the blank tile
-            if (getBlankNeighbors().contains(num)) {
-                if (moves == 0) {
-                    startTime = Instant.now();
-                }
+            // the click is only valid if the clicked number is beside the blank tile
+            // (or in line with it when `slide`) which the engine checks before moving
+            moveTile(engine, num, isSliding());
+        }
+    }
 
-                // gets the indices of the tile with a value of `num`
-                Point pressedCoord = getTile(num);
-                // gets the indices of the `blank` tile
-                Point blankCoord = getTile(0);
-                // swap the pressed button and the blank button
-                swap(pressedCoord, blankCoord);
-
-                // update move's counter and display
-                moves++;
-                app.movesLabel.setText("Moves: " + moves);
-                app.movesLabel.setForeground(App.LABEL_COLOR);
-
-                // updates the properties of the button that was clicked
-                updateButton(
-                    (JButton) getComponents()[to1DIdx(pressedCoord)],
-                    pressedCoord.x, pressedCoord.y
-                );
-                // updates the properties of the blank button that was swapped
-                updateButton(
-                    (JButton) getComponents()[to1DIdx(blankCoord)],
-                    blankCoord.x, blankCoord.y
-                );
-
-                // the user's board equals the sorted/target end board `COMPLETED`
-                // meaning the user has finished the puzzle / has won
-                if (Arrays.deepEquals(board, COMPLETED)) {
-                    // calculates time taken for the user to solve the current puzzle
-                    //
-                    // <https://stackoverflow.com/questions/1555262/calculating-the-difference-between-two-java-date-instances>
-                    //
-                    timeTaken = Duration.between(startTime, Instant.now());
-
-                    app.movesLabel.setText(String.format(
-                        "Congratulations! You've won in %d moves, taking %s",
-                        moves,
-                        humanizeDuration(timeTaken)
-                    ));
-                    app.movesLabel.setForeground(WIN_COLOR);
-                }
+    // whether `tile` can be moved: when it is beside the blank, or when `slide` in line with it
+    //
+    protected static boolean canMove(GameEngine engine, int tile, boolean slide) {
+        return slide ? engine.getBoard().lineDirectionOf(tile) != -1 : engine.getBoard().isMovable(tile);
+    }
+
+    // moves the clicked `tile` of `engine` (if it is beside the blank, or when `slide` in line with it
+    // along with the tiles in between) recording the time it took, including updating the board's view,
+    // returning whether it moved
+    //
+    protected static boolean moveTile(GameEngine engine, int tile, boolean slide) {
+        GameEvents.Move event = new GameEvents.Move();
+        event.begin();
+        long start = MOVES.start();
+
+        boolean moved = slide ? engine.slide(tile) > 0 : engine.moveTile(tile);
+
+        MOVES.stop(start);
+        if (event.shouldCommit()) {
+            event.tile = tile;
+            event.moved = moved;
+            event.commit();
+        }
+        return moved;
+    }
+
+    // updates the two tiles that were swapped
+    // as well as the move's counter display
+    //
+    public void tileMoved(GameEngine engine, int from, int to) {
+        if (view == View.SCROLLED) {
+            canvas.followBlank();
+        }
+        if (view != View.BUTTONS) {
+            canvas.repaintCell(from);
+            canvas.repaintCell(to);
+        } else {
+            updateButton((JButton) getComponent(from), from);
+            updateButton((JButton) getComponent(to), to);
+        }
+
+        app.movesLabel.setText("Moves: " + engine.getMoves());
+        app.movesLabel.setForeground(App.LABEL_COLOR);
+    }
+
+    // updates the line of tiles that slid (the buttons between the two cells, or a single region of the canvas)
+    // as well as the move's counter display
+    //
+    public void tilesSlid(GameEngine engine, int from, int to) {
+        if (view == View.SCROLLED) {
+            canvas.followBlank();
+        }
+        if (view != View.BUTTONS) {
+            canvas.repaintCells(from, to);
+        } else {
+            int step = engine.getBoard().rowOf(from) == engine.getBoard().rowOf(to) ? 1 : engine.getCols();
+
+            for (int cell = Math.min(from, to); cell <= Math.max(from, to); cell += step) {
+                updateButton((JButton) getComponent(cell), cell);
             }
         }
+
+        app.movesLabel.setText("Moves: " + engine.getMoves());
+        app.movesLabel.setForeground(App.LABEL_COLOR);
+    }
+
+    // redraws every tile when the whole board is replaced
+    //
+    public void boardChanged(GameEngine engine) {
+        app.movesLabel.setText("Moves: " + engine.getMoves());
+        app.movesLabel.setForeground(App.LABEL_COLOR);
+
+        if (view == View.SCROLLED) {
+            canvas.followBlank();
+        }
+        if (view != View.BUTTONS) {
+            canvas.repaint();
+            return;
+        }
+        for (int cell = 0; cell < getComponentCount(); cell++) {
+            updateButton((JButton) getComponent(cell), cell);
+        }
+    }
+
+    // the user's board equals the sorted/target end board
+    // meaning the user has finished the puzzle / has won
+    //
+    public void gameWon(GameEngine engine) {
+        app.movesLabel.setText(String.format(
+            "Congratulations! You've won in %d moves, taking %s",
+            engine.getMoves(),
+            humanizeDuration(engine.getTimeTaken())
+        ));
+        app.movesLabel.setForeground(WIN_COLOR);
+    }
+
+    // number of numbered tiles currently in their sorted position
+    // (a running count maintained by the board, so this is free to call after every move)
+    //
+    public int getTilesInPlace() {
+        return engine.getBoard().getTilesInPlace();
     }
 
     // formats a `Duration` properly, displaying it in a non redundant (zero values ommited) manner
@@ -160,19 +594,12 @@ public class GamePanel extends JPanel implements ActionListener {
         return "[" + formatted.trim() + "]";
     }
 
-    // converts a pair of (row, col) indices to a single index
-    // that will index the same element when the matrix is flattened
-    //
-    private int to1DIdx(Point indices) {
-        return indices.x * app.cols + indices.y;
-    }
-
     // creates a new `JButton` to be added to the `JPanel`
     // with required attributes like color, label etc.
     //
-    private JButton createButton(int i, int j) {
+    private JButton createButton(int cell) {
         JButton button = new JButton();
-        updateButton(button, i, j);
+        updateButton(button, cell);
 
         button.setForeground(TEXT_COLOR);
         button.setFont(BUTTON_FONT);
@@ -180,7 +607,9 @@ public class GamePanel extends JPanel implements ActionListener {
             BorderFactory.createLineBorder(OUTLINE_COLOR, 4)
         );
         button.addActionListener(this);
-        button.addComponentListener(new ButtonListener());
+        button.addComponentListener(FONT_FITTER);
+        button.addMouseListener(dragger);
+        button.addMouseMotionListener(dragger);
         return button;
     }
 
@@ -190,142 +619,35 @@ public class GamePanel extends JPanel implements ActionListener {
     //     - the label: (numbers have been swapped)
     //     - whether or not the button is disabled (only if the tile is blank)
     //
-    // `i` and `j` respectively are the row and column indices of the tile/button
-    //
-    private void updateButton(JButton button, int i, int j) {
-        int num = board[i][j];
-
-        Color color = num == COMPLETED[i][j]
-            ? CORRECT_COLOR
-            : num == 0
-            ? ZERO_COLOR
-            : DEFAULT_COLOR;
-
-        button.setText(
-            num == 0 ? "" : String.valueOf(num)
-        );
-        button.setBackground(color);
-        button.setEnabled(num != 0);
-    }
-
-    // generates the array of numbers that will be used
-    // within the interval [1, rows * cols) (+ a `0` at the end)
-    //
-    private static int[] generateNumbers(int rows, int cols) {
-        int count = rows * cols;
-        int[] arr = new int[count];
-
-        for (int i = 1; i < count; i++) {
-            arr[i - 1] = i;
-        }
-        arr[arr.length - 1] = 0;
-        return arr;
-    }
-
-    // swaps the `clicked` tile and the `blank` tile
-    //
-    private void swap(Point pressedCoord, Point blankCoord) {
-        int temp = board[pressedCoord.x][pressedCoord.y];
-
-        board[pressedCoord.x][pressedCoord.y] = board[blankCoord.x][blankCoord.y];
-        board[blankCoord.x][blankCoord.y] = temp;
-    }
-
-    // method to aid in generate the starting grid configuration
-    // by randomly performing valid moves starting with the solved grid configuration
+    // `cell` is the flattened (row-major) index of the tile/button
     //
-    // performs `count` number of moves backwrads to generate a random configuration
-    //
-    private void shuffle(int count) {
-        Point blank = getTile(0);
-
-        for (int i = 0; i < count; i++) {
-            ArrayList<Integer> neighbors = getBlankNeighbors();
-            int idxToRemove = neighbors.indexOf(
-                board[blank.x][blank.y]
-            );
+    private void updateButton(JButton button, int cell) {
+        Board board = engine.getBoard();
+        int num = board.get(cell);
 
-            if (idxToRemove != -1) {
-                neighbors.remove(idxToRemove);
-            }
+        String label = num == 0 ? "" : String.valueOf(num);
 
-            int move = neighbors.get(
-                (int) (Math.random() * neighbors.size())
+        // a label with another number of digits needs another (cached) font
+        if (button.getWidth() > 0 && label.length() != button.getText().length()) {
+            button.setFont(
+                ButtonListener.fitFont(label.length(), button.getWidth(), button.getHeight())
             );
-            blank = getTile(0);
-            swap(getTile(move), blank);
         }
+        button.setText(label);
+        button.setBackground(tileColor(board, cell));
+        button.setEnabled(num != 0);
     }
 
-    // chunks a 1 dimensional array
-    // into a 2 dimensional array with row length's of `size`
-    // `chunk([1, 2, 3, 4, 5, 6], size=2)` -> `[[1, 2], [3, 4], [5, 6]]`
+    // the background color of the tile at `cell`:
+    // green if the tile is in the right spot, dark for the blank tile
     //
-    private int[][] chunk(int[] arr) {
-        int[][] chunked = new int[app.rows][app.cols];
-
-        for (
-            int i = 0, idx = 0;
-            i < arr.length;
-            i += app.cols, idx++
-        ) {
-            int[] chunk = new int[app.cols];
-
-            for (int j = i; j < i + app.cols; j++) {
-                chunk[j - i] = arr[j];
-            }
-            chunked[idx] = chunk;
-        }
-        return chunked;
-    }
+    protected static Color tileColor(Board board, int cell) {
+        int num = board.get(cell);
 
-    // returns the indices as `Point(row, col)`
-    // of the tile that has a label/value of `num`
-    //
-    private Point getTile(int num) {
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                if (board[i][j] == num) {
-                    return new Point(i, j);
-                }
-            }
-        }
-        // returns `null` when not not found
-        //
-        // but this should never be reached
-        // if `num` is in the interval: `[0, rows * cols]`
-        return null;
-    }
-
-    // gets the numbers that are in the 4-neighborhood of the blank tile
-    // effectively are all the tiles that are able to be selected/moved
-    //
-    // ensures that the neighbor's are within the grid bounds.
-    //
-    // uses an `ArrayList<Integer>` instead of `int[]` as there may not always be 4 neighbors,
-    // as some may be out of bounds
-    //
-    private ArrayList<Integer> getBlankNeighbors() {
-        Point empty = getTile(0);
-
-        ArrayList<Integer> neighbors = new ArrayList<Integer>();
-        Point[] points = {
-            new Point(empty.x - 1, empty.y),
-            new Point(empty.x + 1, empty.y),
-            new Point(empty.x, empty.y - 1),
-            new Point(empty.x, empty.y + 1),
-        };
-
-        for (Point indices: points) {
-            if (
-                0 <= indices.x
-                && indices.x < board.length
-                && 0 <= indices.y
-                && indices.y < board[0].length
-            ) {
-                neighbors.add(board[indices.x][indices.y]);
-            }
-        }
-        return neighbors;
+        return num == board.goalTile(cell)
+            ? CORRECT_COLOR
+            : num == 0
+            ? ZERO_COLOR
+            : DEFAULT_COLOR;
     }
-}
\ No newline at end of file
+}
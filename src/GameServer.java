@@ -0,0 +1,331 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless server hosting many games at once over localhost TCP, for bots and automated players
+//
+// every connection is a session with its own `GameEngine`, served by a thread of its own
+// (a virtual thread on Java 21+, see `Threads`), so a session is plain blocking code.
+// the protocol is text, one command per line and one reply line per command:
+//
+//     NEW <rows> <cols> [seed]        shuffles a new board                   -> BOARD <rows> <cols> <tiles...>
+//     LOAD <rows> <cols> <tiles...>   plays the given (solvable) board       -> BOARD <rows> <cols> <tiles...>
+//     MOVE <tile>                     slides a tile into the blank           -> OK <moves> | WON <moves> | NO
+//     SLIDE <tile>                    slides a tile in line with the blank   -> OK <moves> | WON <moves> | NO
+//                                     and those in between (one move each)
+//     DIR <U|D|L|R>                   moves the blank                        -> OK <moves> | WON <moves> | NO
+//     UNDO                            takes back the last move               -> OK <moves> | NO
+//     BOARD                           the current layout (0 is the blank)    -> BOARD <rows> <cols> <tiles...>
+//     STATS                           sessions and move latency percentiles  -> STATS <name>=<value>...
+//     QUIT                            closes the session
+//
+// anything else is answered `ERR <reason>`. a session starts with a shuffled 4x4 board.
+// replies are only flushed once no more commands are waiting, so clients can pipeline moves.
+//
+// the latency of a move is the time from its command being read to its reply being ready to send,
+// and is kept in the `server.move` histogram (see `Metrics`), reported as percentiles by `STATS`.
+//
+public class GameServer {
+    public static final int DEFAULT_PORT = 7700;
+
+    // sessions' boards are kept smaller than in `App`, as there can be tens of thousands of them
+    private static final int MIN_DIMS = BoardValidator.MIN_DIMS;
+    private static final int MAX_DIMS = 100;
+    // pending connections queued by the OS, so that bursts of clients connecting aren't refused
+    private static final int BACKLOG = 4096;
+    // stack reserved by each session's thread when they aren't virtual threads
+    private static final long STACK_SIZE = 256 * 1024;
+    // longest command line read, a longer one ends the session: the `LOAD` of a largest board
+    // (up to 5 characters per tile)
+    private static final int MAX_LINE = 64 + MAX_DIMS * MAX_DIMS * 5;
+    // bytes buffered per session each way, small as the commands and most replies are a few bytes
+    private static final int INPUT_BUFFER = 256;
+    private static final int OUTPUT_BUFFER = 1024;
+
+    private static final Metrics.Histogram MOVES = Metrics.histogram("server.move");
+    private static final Metrics.Counter SESSIONS = Metrics.counter("server.sessions");
+
+    private final ServerSocket socket;
+    private final ExecutorService executor = Threads.newPerTaskExecutor("slider-session", STACK_SIZE);
+    private final AtomicInteger open = new AtomicInteger();
+    // the connections of the sessions in progress, closed by `close` to end their blocking reads
+    // (interrupting a platform thread doesn't)
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    // a server listening on `port` of the loopback interface (`0` for any free port)
+    //
+    public GameServer(int port) throws IOException {
+        socket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    // number of sessions currently connected
+    //
+    public int getOpenSessions() {
+        return open.get();
+    }
+
+    // accepts connections until the server is closed, starting a session for each
+    //
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (IOException err) {
+                if (socket.isClosed()) {
+                    return;
+                }
+                throw err;
+            }
+            executor.execute(() -> serve(connection));
+        }
+    }
+
+    // stops accepting connections and ends every session
+    //
+    public void close() throws IOException {
+        socket.close();
+        executor.shutdownNow();
+
+        for (Socket connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException err) {
+                // its session ends all the same
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        open.incrementAndGet();
+        SESSIONS.increment();
+        connections.add(connection);
+
+        try (
+            connection;
+            InputStream in = new BufferedInputStream(connection.getInputStream(), INPUT_BUFFER);
+            OutputStream out = new BufferedOutputStream(connection.getOutputStream(), OUTPUT_BUFFER)
+        ) {
+            if (socket.isClosed()) {
+                // the server was closed before the session was registered
+                return;
+            }
+            connection.setTcpNoDelay(true);
+            Session session = new Session();
+            StringBuilder line = new StringBuilder();
+            StringBuilder reply = new StringBuilder();
+
+            while (readLine(in, line)) {
+                reply.setLength(0);
+                boolean more = session.run(line.toString(), reply);
+
+                out.write(reply.toString().getBytes(StandardCharsets.US_ASCII));
+                if (!more) {
+                    break;
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException err) {
+            // the client went away (possibly as soon as it connected), or the server was closed
+        } finally {
+            connections.remove(connection);
+            open.decrementAndGet();
+        }
+    }
+
+    // reads the next line of `in` into `line`, returning `false` at the end of the stream
+    // or past `MAX_LINE` characters
+    //
+    private static boolean readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c;
+
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (line.length() == MAX_LINE) {
+                return false;
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return c != -1 || line.length() > 0;
+    }
+
+    // the game of a connection, only touched by its thread
+    private class Session {
+        private final GameEngine engine = new GameEngine(4, 4);
+        private final BoardValidator validator = new BoardValidator();
+
+        Session() {
+            engine.newGame(PuzzleGenerator.Mode.PERMUTATION);
+        }
+
+        // runs the command `line`, appending its reply to `out`, and returns whether the session goes on
+        //
+        boolean run(String line, StringBuilder out) {
+            long start = System.nanoTime();
+            String[] words = line.trim().split(" +");
+
+            try {
+                switch (words[0].toUpperCase()) {
+                    case "MOVE":
+                        moved(engine.moveTile(Integer.parseInt(argument(words, 1))), out);
+                        MOVES.stop(start);
+                        return true;
+                    case "SLIDE":
+                        moved(engine.slide(Integer.parseInt(argument(words, 1))) > 0, out);
+                        MOVES.stop(start);
+                        return true;
+                    case "DIR":
+                        moved(engine.move(parseDirection(argument(words, 1))), out);
+                        MOVES.stop(start);
+                        return true;
+                    case "UNDO":
+                        // a slide is taken back whole
+                        out.append(engine.undo() ? "OK " + engine.getMoves() + "\n" : "NO\n");
+                        return true;
+                    case "NEW":
+                        newGame(words);
+                        writeBoard(out);
+                        return true;
+                    case "LOAD":
+                        load(words);
+                        writeBoard(out);
+                        return true;
+                    case "BOARD":
+                        writeBoard(out);
+                        return true;
+                    case "STATS":
+                        out.append(String.format(
+                            "STATS sessions=%d moves=%d p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus\n",
+                            open.get(), MOVES.getCount(), MOVES.percentile(0.5) / 1e3, MOVES.percentile(0.9) / 1e3,
+                            MOVES.percentile(0.99) / 1e3, MOVES.percentile(0.999) / 1e3, MOVES.getMax() / 1e3
+                        ));
+                        return true;
+                    case "QUIT":
+                        return false;
+                    default:
+                        throw new IllegalArgumentException("unknown command " + words[0]);
+                }
+            } catch (IllegalArgumentException err) {
+                // `NumberFormatException`s included
+                out.append("ERR ").append(err.getMessage()).append('\n');
+                return true;
+            }
+        }
+
+        private void moved(boolean legal, StringBuilder out) {
+            if (!legal) {
+                out.append("NO\n");
+                return;
+            }
+            out.append(engine.isSolved() ? "WON " : "OK ").append(engine.getMoves()).append('\n');
+        }
+
+        private void newGame(String[] words) {
+            int rows = Integer.parseInt(argument(words, 1));
+            int cols = Integer.parseInt(argument(words, 2));
+
+            checkDimensions(rows, cols);
+            engine.resize(rows, cols);
+
+            if (words.length > 3) {
+                engine.newGame(PuzzleGenerator.Mode.PERMUTATION, new SplittableRandom(Long.parseLong(words[3])));
+            } else {
+                engine.newGame(PuzzleGenerator.Mode.PERMUTATION);
+            }
+        }
+
+        private void load(String[] words) {
+            int rows = Integer.parseInt(argument(words, 1));
+            int cols = Integer.parseInt(argument(words, 2));
+            checkDimensions(rows, cols);
+
+            int[] layout = new int[words.length - 3];
+            for (int cell = 0; cell < layout.length; cell++) {
+                layout[cell] = Integer.parseInt(words[3 + cell]);
+            }
+            BoardValidator.Verdict verdict = validator.check(rows, cols, layout);
+            if (!verdict.isValid()) {
+                throw new IllegalArgumentException(verdict.getProblem());
+            }
+            if (!verdict.isSolvable()) {
+                throw new IllegalArgumentException("unsolvable board");
+            }
+            engine.resize(rows, cols);
+            engine.newGame(layout);
+        }
+
+        private void writeBoard(StringBuilder out) {
+            Board board = engine.getBoard();
+            out.append("BOARD ").append(board.getRows()).append(' ').append(board.getCols());
+
+            for (int cell = 0; cell < board.size(); cell++) {
+                out.append(' ').append(board.get(cell));
+            }
+            out.append('\n');
+        }
+    }
+
+    private static void checkDimensions(int rows, int cols) {
+        if (rows < MIN_DIMS || rows > MAX_DIMS || cols < MIN_DIMS || cols > MAX_DIMS) {
+            throw new IllegalArgumentException(String.format(
+                "the dimensions must be between %d and %d", MIN_DIMS, MAX_DIMS
+            ));
+        }
+    }
+
+    private static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException("missing argument to " + words[0]);
+        }
+        return words[index];
+    }
+
+    private static int parseDirection(String name) {
+        switch (name.toUpperCase()) {
+            case "U":
+                return Board.UP;
+            case "D":
+                return Board.DOWN;
+            case "L":
+                return Board.LEFT;
+            case "R":
+                return Board.RIGHT;
+            default:
+                throw new IllegalArgumentException("unknown direction " + name);
+        }
+    }
+
+    // serves games until the JVM is stopped: `java -cp bin GameServer [port]`
+    //
+    // run with `-Dslider.metrics.dump=-` to print the move latencies on exit
+    //
+    public static void main(String[] args) throws IOException {
+        GameServer server = new GameServer(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+
+        System.out.printf(
+            "Serving games on %s:%d (%s threads)%n", InetAddress.getLoopbackAddress().getHostAddress(),
+            server.getPort(), Threads.hasVirtualThreads() ? "virtual" : "platform"
+        );
+        server.serve();
+    }
+}
@@ -0,0 +1,108 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Images of every tile label of a board, pre-rendered at the fitted font size for one cell size
+//
+// labels `1` to `rows * cols - 1` are drawn once, each centred within its own `slotWidth` x `slotHeight`
+// slot, onto one opaque image per tile background color (managed images the graphics pipeline can
+// keep on the GPU). painting a tile's background and label is then a single opaque blit
+// instead of a fill and a trip through Swing's text layout.
+// the atlas is only valid for the cell size it was made for, see `matches`.
+//
+public class GlyphAtlas {
+    // largest atlas made, in pixels per background color (8 MB),
+    // larger boards / cells draw their labels as text instead
+    private static final long MAX_PIXELS = 1 << 21;
+    // the backgrounds a numbered tile can have
+    private static final Color[] BACKGROUNDS = { GamePanel.DEFAULT_COLOR, GamePanel.CORRECT_COLOR };
+
+    private final int labels;
+    private final int slotWidth;
+    private final int slotHeight;
+    // number of slots per row of the images
+    private final int columns;
+    // the labels on each of the `BACKGROUNDS`
+    private final BufferedImage[] images;
+
+    private GlyphAtlas(int labels, int slotWidth, int slotHeight, GraphicsConfiguration config) {
+        this.labels = labels;
+        this.slotWidth = slotWidth;
+        this.slotHeight = slotHeight;
+        columns = (int) Math.ceil(Math.sqrt(labels));
+
+        int width = columns * slotWidth;
+        int height = (labels + columns - 1) / columns * slotHeight;
+        images = new BufferedImage[BACKGROUNDS.length];
+
+        for (int b = 0; b < BACKGROUNDS.length; b++) {
+            images[b] = config != null
+                ? config.createCompatibleImage(width, height, Transparency.OPAQUE)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+            Graphics2D g = images[b].createGraphics();
+            g.setColor(BACKGROUNDS[b]);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(GamePanel.TEXT_COLOR);
+
+            for (int label = 1; label <= labels; label++) {
+                String text = String.valueOf(label);
+                g.setFont(ButtonListener.fitFont(text.length(), slotWidth, slotHeight));
+
+                FontMetrics metrics = g.getFontMetrics();
+                g.drawString(
+                    text,
+                    slotX(label) + (slotWidth - metrics.stringWidth(text)) / 2,
+                    slotY(label) + (slotHeight - metrics.getHeight()) / 2 + metrics.getAscent()
+                );
+            }
+            g.dispose();
+        }
+    }
+
+    // renders the labels of a board of `size` cells for cells of `slotWidth` x `slotHeight`
+    // or returns `null` when the atlas would be too large
+    //
+    // `config` is the configuration of the component the atlas will be painted onto (if known)
+    //
+    public static GlyphAtlas create(int size, int slotWidth, int slotHeight, GraphicsConfiguration config) {
+        if (slotWidth <= 0 || slotHeight <= 0 || (long) size * slotWidth * slotHeight > MAX_PIXELS) {
+            return null;
+        }
+        return new GlyphAtlas(size - 1, slotWidth, slotHeight, config);
+    }
+
+    // whether this atlas holds the labels of a board of `size` cells at the given slot size
+    //
+    public boolean matches(int size, int slotWidth, int slotHeight) {
+        return labels == size - 1 && this.slotWidth == slotWidth && this.slotHeight == slotHeight;
+    }
+
+    // the left / top edge of the slot of `label` within the images
+    //
+    private int slotX(int label) {
+        return (label - 1) % columns * slotWidth;
+    }
+
+    private int slotY(int label) {
+        return (label - 1) / columns * slotHeight;
+    }
+
+    // blits `label` on the `background` color over the `width` x `height` area at (`x`, `y`),
+    // which must be at most the slot size, taking the centre of the label's slot
+    //
+    // returns `false` (drawing nothing) when `background` isn't one the atlas was rendered with
+    //
+    public boolean draw(Graphics g, int label, Color background, int x, int y, int width, int height) {
+        for (int b = 0; b < BACKGROUNDS.length; b++) {
+            if (BACKGROUNDS[b] == background) {
+                int sx = slotX(label) + (slotWidth - width) / 2;
+                int sy = slotY(label) + (slotHeight - height) / 2;
+
+                g.drawImage(images[b], x, y, x + width, y + height, sx, sy, sx + width, sy + height, null);
+                return true;
+            }
+        }
+        return false;
+    }
+}
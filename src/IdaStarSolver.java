@@ -0,0 +1,442 @@
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Optimal solver using iterative deepening A* (IDA*)
+//
+// the heuristic is the manhattan distance of every tile plus the linear conflicts of every row and column,
+// both updated incrementally as moves are made and undone during the search.
+// the search itself works on a private copy of the tiles and allocates nothing per node,
+// so memory use is O(rows * cols + solution length).
+//
+// optionally the maximum with an additive `PatternHeuristic` is taken, whose per-pattern values
+// are likewise updated for the one pattern containing the moved tile.
+//
+// practical for boards up to 4x4 (or 5x5 with pattern databases),
+// larger boards may take a very long time to solve optimally.
+// a solver instance is not thread-safe, but can be reused for any number of boards.
+//
+public class IdaStarSolver implements Solver {
+    // returned by `search` when the goal has been reached
+    protected static final int FOUND = -1;
+    // returned by `search` when it was abandoned through the `stop` flag, and passed up to the root
+    // (distinct from `Integer.MAX_VALUE`, returned by subtrees pruned without exceeding the bound)
+    protected static final int STOPPED = -2;
+    // how many nodes are expanded between checks of the `stop` flag and of the thread's interruption
+    // (minus one, a power of two mask)
+    protected static final long STOP_CHECK_MASK = 0x3FF;
+
+    // additive pattern databases, only used for boards of their dimensions (may be `null`)
+    private final PatternHeuristic patterns;
+    private boolean usePatterns;
+
+    private int rows;
+    private int cols;
+    private int size;
+
+    // working copy of the board being searched (cell -> tile) and its blank cell
+    private int[] tiles;
+    private int blank;
+
+    // the manhattan distance of tile `t` at cell `c`, indexed `t * size + c`
+    private int[] manhattan;
+    // the solved row and column of every tile
+    private int[] goalRow;
+    private int[] goalCol;
+    // the current linear conflict penalty of every row and column
+    private int[] rowConflicts;
+    private int[] colConflicts;
+    // scratch space for computing longest increasing subsequences in `lineConflicts`
+    private int[] sequence;
+    private int[] increasing;
+
+    // the cells of every pattern's tiles (by slot), the value of every pattern and their sum
+    private int[][] patternCells;
+    private int[] patternValues;
+    private int patternTotal;
+
+    // table of the layouts already searched in the current iteration and in how few moves (`null` when not used)
+    // and the Zobrist hash of the working state, only kept up to date while there is a table
+    private TranspositionTable table;
+    private long hash;
+
+    // directions of the blank along the current search path
+    private int[] path = new int[64];
+    private int solutionLength;
+
+    // statistics of the last call to `solve`
+    private long nodes;
+    private long elapsedNanos;
+
+    // flag raised by another thread once the current search can be abandoned (`null` when searching alone)
+    private AtomicBoolean stop;
+
+    // a solver using only the manhattan distance and linear conflicts
+    //
+    public IdaStarSolver() {
+        this(null);
+    }
+
+    // a solver additionally using `patterns` for boards of its dimensions
+    //
+    public IdaStarSolver(PatternHeuristic patterns) {
+        this.patterns = patterns;
+    }
+
+    // prunes the layouts reached again (in at least as many moves) within an iteration through `table`,
+    // or stops doing so when `null` (the default)
+    //
+    // transpositions are rare in the tile puzzle's search tree once moves aren't immediately undone,
+    // so this mostly pays off when expanding a node costs more than probing the table
+    //
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public int[] solve(Board board) {
+        return solve(board, Integer.MAX_VALUE - 1);
+    }
+
+    // an optimal solution of `board` of at most `maxLength` moves,
+    // or `null` if there is none (or the board is not solvable)
+    //
+    // stops as soon as an iteration's bound exceeds `maxLength`,
+    // so proving a board harder than that is much cheaper than solving it
+    //
+    public int[] solve(Board board, int maxLength) {
+        if (!PuzzleGenerator.isSolvable(board.toArray(), board.getRows(), board.getCols())) {
+            return null;
+        }
+        long start = System.nanoTime();
+        nodes = 0;
+
+        int bound = init(board);
+        while (bound <= maxLength) {
+            if (path.length < bound + 1) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, bound + 1));
+            }
+            if (table != null) {
+                table.newGeneration();
+            }
+            int next = search(0, heuristic(), bound, -1);
+
+            if (next == FOUND) {
+                elapsedNanos = System.nanoTime() - start;
+                return Arrays.copyOf(path, solutionLength);
+            }
+            bound = next;
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return null;
+    }
+
+    // searches the subtree below the node reached by playing the first `depth` moves of `prefix` on `board`
+    // for a solution of at most `bound` moves, giving up early once `stop` is raised
+    //
+    // returns `FOUND` (the solution is then available from `getSolution`), `STOPPED`,
+    // or otherwise the smallest `f` value that exceeded `bound`
+    //
+    // used by `ParallelIdaStarSolver` to search disjoint subtrees of one iteration on separate threads
+    //
+    protected int searchBelow(Board board, int[] prefix, int depth, int bound, AtomicBoolean stop) {
+        Board node = new Board(board);
+        for (int k = 0; k < depth; k++) {
+            node.move(prefix[k]);
+        }
+        nodes = 0;
+        init(node);
+
+        if (path.length < bound + 1) {
+            path = Arrays.copyOf(path, Math.max(path.length * 2, bound + 1));
+        }
+        System.arraycopy(prefix, 0, path, 0, depth);
+
+        this.stop = stop;
+        try {
+            return search(depth, heuristic(), bound, depth == 0 ? -1 : prefix[depth - 1]);
+        } finally {
+            this.stop = null;
+        }
+    }
+
+    // the solution found by the last successful `searchBelow`
+    //
+    protected int[] getSolution() {
+        return Arrays.copyOf(path, solutionLength);
+    }
+
+    // number of nodes expanded by the last call to `solve`
+    //
+    public long getNodes() {
+        return nodes;
+    }
+
+    // wall-clock time taken by the last call to `solve`, in nanoseconds
+    //
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    // a lower bound on the number of moves needed to solve `board`
+    //
+    public int estimate(Board board) {
+        return init(board);
+    }
+
+    // copies `board` into the working state and (re)builds the lookup tables when the dimensions change
+    // returns the initial heuristic value
+    //
+    private int init(Board board) {
+        if (tiles == null || board.getRows() != rows || board.getCols() != cols) {
+            rows = board.getRows();
+            cols = board.getCols();
+            size = rows * cols;
+
+            goalRow = new int[size];
+            goalCol = new int[size];
+            manhattan = new int[size * size];
+
+            for (int tile = 1; tile < size; tile++) {
+                int goal = board.goalCell(tile);
+                goalRow[tile] = goal / cols;
+                goalCol[tile] = goal % cols;
+
+                for (int cell = 0; cell < size; cell++) {
+                    manhattan[tile * size + cell] = Math.abs(cell / cols - goalRow[tile])
+                        + Math.abs(cell % cols - goalCol[tile]);
+                }
+            }
+            rowConflicts = new int[rows];
+            colConflicts = new int[cols];
+            sequence = new int[Math.max(rows, cols)];
+            increasing = new int[Math.max(rows, cols)];
+        }
+        tiles = board.toArray();
+        blank = board.getBlank();
+        hash = board.getHash();
+
+        for (int i = 0; i < rows; i++) {
+            rowConflicts[i] = lineConflicts(i, true);
+        }
+        for (int j = 0; j < cols; j++) {
+            colConflicts[j] = lineConflicts(j, false);
+        }
+
+        usePatterns = patterns != null && patterns.getRows() == rows && patterns.getCols() == cols;
+        if (usePatterns) {
+            if (patternCells == null) {
+                patternCells = new int[patterns.patterns()][];
+                patternValues = new int[patterns.patterns()];
+            }
+            patternTotal = 0;
+
+            for (int p = 0; p < patternCells.length; p++) {
+                int[] pattern = patterns.getPattern(p);
+                patternCells[p] = new int[pattern.length];
+
+                for (int slot = 0; slot < pattern.length; slot++) {
+                    patternCells[p][slot] = board.indexOf(pattern[slot]);
+                }
+                patternValues[p] = patterns.lookup(p, patternCells[p]);
+                patternTotal += patternValues[p];
+            }
+        }
+        return Math.max(heuristic(), usePatterns ? patternTotal : 0);
+    }
+
+    // computes the manhattan distance plus linear conflicts of the working state from scratch
+    //
+    private int heuristic() {
+        int h = 0;
+
+        for (int cell = 0; cell < size; cell++) {
+            if (tiles[cell] != 0) {
+                h += manhattan[tiles[cell] * size + cell];
+            }
+        }
+        for (int conflicts : rowConflicts) {
+            h += conflicts;
+        }
+        for (int conflicts : colConflicts) {
+            h += conflicts;
+        }
+        return h;
+    }
+
+    // depth-first search below the current node, pruning once `g + h` exceeds `bound`
+    // where `h` is the larger of `distance` (manhattan distance plus linear conflicts) and the pattern databases
+    // `previous` is the direction of the last move, which is never immediately undone
+    //
+    // returns `FOUND` if the goal was reached, `STOPPED` once the `stop` flag was seen raised,
+    // otherwise the smallest `f` value that exceeded `bound`
+    //
+    private int search(int g, int distance, int bound, int previous) {
+        nodes++;
+        if ((nodes & STOP_CHECK_MASK) == 0) {
+            if (stop != null && stop.get()) {
+                return STOPPED;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+        int f = g + (usePatterns ? Math.max(distance, patternTotal) : distance);
+
+        if (f > bound) {
+            return f;
+        }
+        if (distance == 0) {
+            // the manhattan distance is only `0` once every tile is in place
+            solutionLength = g;
+            return FOUND;
+        }
+        if (table != null) {
+            // a layout already reached in as few moves has its subtree searched (or being searched) already
+            int seen = table.get(hash);
+
+            if (seen != TranspositionTable.MISSING && seen <= g) {
+                return Integer.MAX_VALUE;
+            }
+            table.put(hash, g, bound - g);
+        }
+        int min = Integer.MAX_VALUE;
+        int row = blank / cols;
+        int col = blank % cols;
+
+        for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+            if (dir == (previous ^ 1)) {
+                continue;
+            }
+            int target;
+            switch (dir) {
+                case Board.UP:
+                    target = row > 0 ? blank - cols : -1;
+                    break;
+                case Board.DOWN:
+                    target = row < rows - 1 ? blank + cols : -1;
+                    break;
+                case Board.LEFT:
+                    target = col > 0 ? blank - 1 : -1;
+                    break;
+                default:
+                    target = col < cols - 1 ? blank + 1 : -1;
+                    break;
+            }
+            if (target == -1) {
+                continue;
+            }
+            int source = blank;
+            int tile = tiles[target];
+            boolean vertical = dir <= Board.DOWN;
+
+            // the tile slides from `target` into the blank's cell
+            tiles[source] = tile;
+            tiles[target] = 0;
+            blank = target;
+
+            long keys = table == null ? 0 : Board.zobrist(tile, target) ^ Board.zobrist(tile, source);
+            hash ^= keys;
+
+            int childDistance = distance - manhattan[tile * size + target] + manhattan[tile * size + source];
+
+            // only the lines the tile left and entered can change their conflicts:
+            // the rows for a vertical move and the columns for a horizontal one.
+            // as only tiles sitting in their goal line take part in conflicts,
+            // at most one of the two (the tile's goal line) actually needs recomputing
+            int goalLine = vertical ? goalRow[tile] : goalCol[tile];
+            int line = vertical
+                ? (goalLine == target / cols || goalLine == source / cols ? goalLine : -1)
+                : (goalLine == target % cols || goalLine == source % cols ? goalLine : -1);
+            int[] conflicts = vertical ? rowConflicts : colConflicts;
+            int oldConflicts = 0;
+
+            if (line != -1) {
+                oldConflicts = conflicts[line];
+                conflicts[line] = lineConflicts(line, vertical);
+                childDistance += conflicts[line] - oldConflicts;
+            }
+
+            // only the pattern containing the tile changes its value
+            int pattern = 0;
+            int oldValue = 0;
+            if (usePatterns) {
+                pattern = patterns.patternOf(tile);
+                oldValue = patternValues[pattern];
+
+                patternCells[pattern][patterns.slotOf(tile)] = source;
+                patternValues[pattern] = patterns.lookup(pattern, patternCells[pattern]);
+                patternTotal += patternValues[pattern] - oldValue;
+            }
+
+            path[g] = dir;
+            int result = search(g + 1, childDistance, bound, dir);
+
+            // undoes the move
+            if (usePatterns) {
+                patternCells[pattern][patterns.slotOf(tile)] = target;
+                patternTotal += oldValue - patternValues[pattern];
+                patternValues[pattern] = oldValue;
+            }
+            if (line != -1) {
+                conflicts[line] = oldConflicts;
+            }
+            tiles[target] = tile;
+            tiles[source] = 0;
+            blank = source;
+            hash ^= keys;
+
+            if (result == FOUND || result == STOPPED) {
+                return result;
+            }
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+
+    // the linear conflict penalty of row (or column when `isRow` is false) `line`
+    //
+    // of the tiles already in their goal line, every tile that has to leave the line
+    // so the rest can pass each other costs 2 extra moves over their manhattan distance.
+    // the fewest tiles that have to leave is the line's length minus the longest increasing subsequence
+    // of the tiles' goal positions along the line.
+    //
+    private int lineConflicts(int line, boolean isRow) {
+        int count = 0;
+        int length = isRow ? cols : rows;
+
+        for (int k = 0; k < length; k++) {
+            int tile = isRow ? tiles[line * cols + k] : tiles[k * cols + line];
+
+            if (tile == 0) {
+                continue;
+            }
+            if (isRow && goalRow[tile] == line) {
+                sequence[count++] = goalCol[tile];
+            } else if (!isRow && goalCol[tile] == line) {
+                sequence[count++] = goalRow[tile];
+            }
+        }
+        if (count < 2) {
+            return 0;
+        }
+        int longest = 0;
+
+        for (int i = 0; i < count; i++) {
+            increasing[i] = 1;
+
+            for (int j = 0; j < i; j++) {
+                if (sequence[j] < sequence[i] && increasing[j] + 1 > increasing[i]) {
+                    increasing[i] = increasing[j] + 1;
+                }
+            }
+            longest = Math.max(longest, increasing[i]);
+        }
+        return 2 * (count - longest);
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load test for `GameServer`: many bots playing random moves at once, each over a connection of its own
+//
+// every bot opens its session, shuffles a board and waits for the others to connect, then plays
+// random legal moves (never straight back), one at a time, until the time is up.
+// the round trip of every move is measured on the client, so it includes the network stack and
+// scheduling on both ends, while the server's `STATS` line (printed last) only covers its processing.
+//
+// `java -cp bin LoadClient [sessions] [seconds] [rows] [cols] [port]`
+//
+public class LoadClient {
+    private static final long STACK_SIZE = 256 * 1024;
+    private static final String[] DIRECTIONS = { "U", "D", "L", "R" };
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int port = args.length > 4 ? Integer.parseInt(args[4]) : GameServer.DEFAULT_PORT;
+
+        Metrics.Histogram latency = new Metrics.Histogram();
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicLong deadline = new AtomicLong();
+        ExecutorService executor = Threads.newPerTaskExecutor("slider-bot", STACK_SIZE);
+
+        for (int bot = 0; bot < sessions; bot++) {
+            long seed = bot;
+
+            executor.execute(() -> {
+                try (
+                    Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                    InputStream in = new BufferedInputStream(socket.getInputStream(), 256);
+                    OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 256)
+                ) {
+                    socket.setTcpNoDelay(true);
+                    Board board = parseBoard(request(in, out, "NEW " + rows + " " + cols + " " + seed));
+                    connected.incrementAndGet();
+                    ready.countDown();
+                    go.await();
+
+                    SplittableRandom random = new SplittableRandom(seed);
+                    int last = -1;
+
+                    while (System.nanoTime() < deadline.get()) {
+                        int dir;
+                        do {
+                            dir = random.nextInt(4);
+                        } while (!board.canMove(dir) || dir == (last ^ 1));
+
+                        long start = System.nanoTime();
+                        String reply = request(in, out, "DIR " + DIRECTIONS[dir]);
+                        latency.stop(start);
+
+                        if (reply.startsWith("NO")) {
+                            rejected.incrementAndGet();
+                        }
+                        board.move(dir);
+                        last = dir;
+                    }
+                    request(in, out, "QUIT");
+                } catch (IOException | InterruptedException err) {
+                    failed.incrementAndGet();
+                    ready.countDown();
+                }
+            });
+        }
+        ready.await();
+        long start = System.nanoTime();
+        deadline.set(start + TimeUnit.SECONDS.toNanos(seconds));
+        go.countDown();
+
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(
+            "%d sessions (%d failed) of %dx%d boards on %s threads, %d moves in %.1f s (%.0f moves/s, %d rejected)%n",
+            connected.get(), failed.get(), rows, cols, Threads.hasVirtualThreads() ? "virtual" : "platform",
+            latency.getCount(), elapsed, latency.getCount() / elapsed, rejected.get()
+        );
+        System.out.printf(
+            "round trip p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f ms%n",
+            latency.percentile(0.5) / 1e3, latency.percentile(0.9) / 1e3, latency.percentile(0.99) / 1e3,
+            latency.percentile(0.999) / 1e3, latency.getMax() / 1e6
+        );
+        try (
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream())
+        ) {
+            System.out.println("server " + request(in, out, "STATS"));
+            request(in, out, "QUIT");
+        }
+    }
+
+    // sends the command `line` and returns the reply, or `""` when the server closed the connection
+    //
+    private static String request(InputStream in, OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+
+        StringBuilder reply = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            reply.append((char) c);
+        }
+        return reply.toString();
+    }
+
+    // the board of a `BOARD <rows> <cols> <tiles...>` reply
+    //
+    private static Board parseBoard(String reply) throws IOException {
+        String[] words = reply.split(" ");
+        if (!words[0].equals("BOARD")) {
+            throw new IOException("Unexpected reply: " + reply);
+        }
+        int rows = Integer.parseInt(words[1]);
+        int cols = Integer.parseInt(words[2]);
+        int[] layout = new int[rows * cols];
+
+        for (int cell = 0; cell < layout.length; cell++) {
+            layout[cell] = Integer.parseInt(words[3 + cell]);
+        }
+        return new Board(rows, cols, layout);
+    }
+}
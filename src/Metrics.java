@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide registry of timers, histograms and counters for the game's hot paths
+//
+// instrumented code keeps its `Timer` / `Histogram` / `Counter` in a static field, so recording is a few
+// uncontended adds with no lookup. the same operations also emit JFR events (see `GameEvents`)
+// for a detailed timeline, while the registry gives the running totals shown by `DebugOverlay`.
+//
+// run with `-Dslider.metrics.dump=<file>` (or `-` for the standard output)
+// to dump the registry when the JVM exits, e.g. for headless runs.
+//
+public class Metrics {
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<String, Timer>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<String, Histogram>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<String, Counter>();
+    // free-form details, such as where the EDT last stalled
+    private static final Map<String, String> NOTES = new ConcurrentHashMap<String, String>();
+
+    static {
+        String dump = System.getProperty("slider.metrics.dump");
+
+        if (dump != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    if (dump.equals("-")) {
+                        dump(System.out);
+                    } else {
+                        try (PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(dump)))) {
+                            dump(out);
+                        }
+                    }
+                } catch (IOException err) {
+                    System.err.println("Could not dump the metrics: " + err.getMessage());
+                }
+            }, "metrics-dump"));
+        }
+    }
+
+    private Metrics() {}
+
+    // the timer named `name`, registered on first use
+    //
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> new Timer());
+    }
+
+    // the histogram named `name`, registered on first use
+    //
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    // the counter named `name`, registered on first use
+    //
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new Counter());
+    }
+
+    // records a free-form detail, replacing the previous one under `name`
+    //
+    public static void note(String name, String value) {
+        NOTES.put(name, value);
+    }
+
+    // clears every timer, histogram and counter (and the notes)
+    //
+    public static void reset() {
+        for (Timer timer : TIMERS.values()) {
+            timer.reset();
+        }
+        for (Histogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : COUNTERS.values()) {
+            counter.reset();
+        }
+        NOTES.clear();
+    }
+
+    // the registry as lines of text, one per timer (count, total, mean and max time),
+    // histogram (count and percentiles) and counter
+    //
+    public static List<String> lines() {
+        List<String> lines = new ArrayList<String>();
+        lines.add(String.format("%-20s %10s %10s %10s %10s", "timer", "count", "total ms", "mean us", "max ms"));
+
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            Timer timer = entry.getValue();
+            long count = timer.getCount();
+
+            lines.add(String.format(
+                "%-20s %10d %10.1f %10.1f %10.2f",
+                entry.getKey(), count, timer.getTotalNanos() / 1e6,
+                count == 0 ? 0 : timer.getTotalNanos() / 1e3 / count, timer.getMaxNanos() / 1e6
+            ));
+        }
+        if (!HISTOGRAMS.isEmpty()) {
+            lines.add(String.format(
+                "%-20s %10s %10s %10s %10s %10s", "histogram", "count", "p50 us", "p99 us", "p99.9 us", "max ms"
+            ));
+        }
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            Histogram histogram = entry.getValue();
+
+            lines.add(String.format(
+                "%-20s %10d %10.1f %10.1f %10.1f %10.2f",
+                entry.getKey(), histogram.getCount(), histogram.percentile(0.5) / 1e3,
+                histogram.percentile(0.99) / 1e3, histogram.percentile(0.999) / 1e3, histogram.getMax() / 1e6
+            ));
+        }
+        lines.add(String.format("%-20s %10s", "counter", "count"));
+
+        for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+            lines.add(String.format("%-20s %10d", entry.getKey(), entry.getValue().get()));
+        }
+        for (Map.Entry<String, String> entry : NOTES.entrySet()) {
+            lines.add(entry.getKey() + ": " + entry.getValue());
+        }
+        return lines;
+    }
+
+    // prints the registry to `out`
+    //
+    public static void dump(PrintStream out) {
+        for (String line : lines()) {
+            out.println(line);
+        }
+        out.flush();
+    }
+
+    // number, total and maximum duration of the runs of an operation
+    //
+    public static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Timer() {}
+
+        // the time to pass to `stop` at the end of the operation
+        //
+        public long start() {
+            return System.nanoTime();
+        }
+
+        // records the run of an operation that began at `start`, returning its duration (ns)
+        //
+        public long stop(long start) {
+            long nanos = System.nanoTime() - start;
+            record(nanos);
+            return nanos;
+        }
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+        }
+    }
+
+    // distribution of the durations (or any other non-negative values) of an operation, for percentiles
+    //
+    // values are counted in log-linear buckets: exactly below `2^SUB_BUCKET_BITS`, then every power of two
+    // is split into `2^SUB_BUCKET_BITS` equal buckets, so a percentile is off by at most 1/32 (about 3%).
+    // the whole range of longs takes 1920 buckets (15 KB), and recording is a single atomic increment.
+    //
+    public static class Histogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        // a histogram outside the registry, e.g. for a client to measure its own latencies
+        //
+        public Histogram() {}
+
+        // records the duration (ns) of an operation that began at `start` (a `System.nanoTime()`), returning it
+        //
+        public long stop(long start) {
+            long nanos = System.nanoTime() - start;
+            record(nanos);
+            return nanos;
+        }
+
+        // records `value`, negative values counting as `0`
+        //
+        public void record(long value) {
+            value = Math.max(value, 0);
+
+            buckets.getAndIncrement(bucketOf(value));
+            count.increment();
+            max.accumulate(value);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        // the value below which a fraction `quantile` (from `0` to `1`) of the recorded values lie,
+        // rounded up to the end of its bucket, or `0` when nothing was recorded
+        //
+        public long percentile(double quantile) {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+
+            // the buckets are snapshotted first, so a percentile is consistent with itself while values come in
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                counts[bucket] = buckets.get(bucket);
+                total += counts[bucket];
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+
+            for (int bucket = 0; bucket < counts.length && total > 0; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return Math.min(highestOf(bucket), getMax());
+                }
+            }
+            return 0;
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            // the position of the highest bit picks the power of two, the next bits the bucket within it
+            int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+        }
+
+        // the highest value counted in `bucket`
+        //
+        private static long highestOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+
+        private void reset() {
+            for (int bucket = 0; bucket < buckets.length(); bucket++) {
+                buckets.set(bucket, 0);
+            }
+            count.reset();
+            max.reset();
+        }
+    }
+
+    // a number of occurrences of something
+    //
+    public static class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {}
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+
+        private void reset() {
+            count.reset();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Log of the moves (directions of the blank) of a game, supporting undo, redo and jumping to any move
+//
+// every move is packed as a 2 bit direction, 32 to a `long` (plus the bit joining slides, see below),
+// so a million moves take under 400 KB.
+// `position` is the number of moves currently applied to the board: undoing moves it back and
+// redoing moves it forward again, while making a new move discards the moves that were undone.
+//
+// the moves of a slide of several tiles (see `GameEngine.slide`) are recorded one by one, all but the first
+// being marked as joined to the move before them (a bit per move) so that they are undone and redone together.
+//
+// to jump to a move far from the current one, the board's layout is saved every `interval` moves
+// (checkpoints). the interval grows with the board, so the checkpoints never take more than
+// a quarter of the memory of the moves they span.
+//
+public class MoveHistory {
+    // smallest number of moves between checkpoints
+    private static final int MIN_INTERVAL = 1024;
+    // moves between checkpoints per cell of the board
+    // (a layout of `size` ints is 16 * `size` moves worth of memory, a quarter of 64 * `size` moves)
+    private static final int INTERVAL_PER_CELL = 64;
+
+    private long[] words = new long[4];
+    // whether every move is joined to the one before it, 64 to a `long`
+    private long[] joined = new long[1];
+    // number of moves recorded (applied or undone) and of moves applied
+    private int length;
+    private int position;
+    // number of the applied moves that are joined to the one before them
+    private int joinedApplied;
+
+    // moves between checkpoints and the layouts at moves `0`, `interval`, `2 * interval`...
+    private int interval;
+    private final List<int[]> checkpoints = new ArrayList<int[]>();
+
+    // a history starting from the layout of `board`
+    //
+    public MoveHistory(Board board) {
+        clear(board);
+    }
+
+    // discards every move, starting over from the layout of `board`
+    //
+    public void clear(Board board) {
+        length = 0;
+        position = 0;
+        joinedApplied = 0;
+        interval = Math.max(MIN_INTERVAL, INTERVAL_PER_CELL * board.size());
+        checkpoints.clear();
+        checkpoints.add(board.toArray());
+
+        if (words.length > 4) {
+            words = new long[4];
+        }
+        if (joined.length > 1) {
+            joined = new long[1];
+        }
+        joined[0] = 0;
+    }
+
+    // number of moves applied to the board
+    //
+    public int getPosition() {
+        return position;
+    }
+
+    // number of the applied moves joined to the one before them, so that `getPosition() - getJoined()`
+    // is the number of moves applied when a slide of several tiles counts as one
+    //
+    public int getJoined() {
+        return joinedApplied;
+    }
+
+    // number of moves recorded, including any undone ones that can be redone
+    //
+    public int getLength() {
+        return length;
+    }
+
+    // the direction of the `i`-th move (from `0`)
+    //
+    public int get(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException(String.format("Move %d of %d", i, length));
+        }
+        return (int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3;
+    }
+
+    // whether the `i`-th move is joined to the one before it, being part of the same slide
+    //
+    public boolean isJoined(int i) {
+        return (joined[i >>> 6] & 1L << i) != 0;
+    }
+
+    // records the move in direction `dir` that was just made on `board`,
+    // discarding any undone moves
+    //
+    public void push(int dir, Board board) {
+        push(dir, board, false);
+    }
+
+    // records the move in direction `dir` that was just made on `board`, discarding any undone moves,
+    // `join`ed to the move before it when it continues the same slide
+    //
+    public void push(int dir, Board board, boolean join) {
+        if (position < length) {
+            // so that the discarded moves aren't left joined (see `hasJoined` and `writeJoinedTo`)
+            clearJoined(position, length);
+            length = position;
+            // drops the checkpoints past the new end
+            while (checkpoints.size() - 1 > length / interval) {
+                checkpoints.remove(checkpoints.size() - 1);
+            }
+        }
+        int word = position >>> 5;
+        int shift = (position & 31) << 1;
+
+        if (word == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        words[word] = (words[word] & ~(3L << shift)) | ((long) dir << shift);
+
+        if (position >>> 6 == joined.length) {
+            joined = Arrays.copyOf(joined, joined.length * 2);
+        }
+        if (join) {
+            joined[position >>> 6] |= 1L << position;
+            joinedApplied++;
+        } else {
+            joined[position >>> 6] &= ~(1L << position);
+        }
+        length = ++position;
+
+        if (position % interval == 0) {
+            checkpoints.add(board.toArray());
+        }
+    }
+
+    // steps back over the last applied move, returning its direction
+    // (the move to make to take it back being the opposite direction, `dir ^ 1`)
+    // or `-1` when there is no move to undo
+    //
+    public int undo() {
+        if (position == 0) {
+            return -1;
+        }
+        if (isJoined(--position)) {
+            joinedApplied--;
+        }
+        return get(position);
+    }
+
+    // steps forward over the next undone move, returning its direction (the move to make)
+    // or `-1` when there is no move to redo
+    //
+    public int redo() {
+        if (position == length) {
+            return -1;
+        }
+        if (isJoined(position)) {
+            joinedApplied++;
+        }
+        return get(position++);
+    }
+
+    // moves `board` (which must be at the current position) to `target`
+    // either by undoing / redoing moves from the current position
+    // or from the closest checkpoint before `target`, whichever takes fewer moves
+    //
+    public void seek(int target, Board board) {
+        if (target < 0 || target > length) {
+            throw new IndexOutOfBoundsException(String.format("Move %d of %d", target, length));
+        }
+        int checkpoint = target / interval;
+
+        if (target - checkpoint * interval + board.size() / 16 < Math.abs(target - position)) {
+            board.setTiles(checkpoints.get(checkpoint));
+            position = checkpoint * interval;
+        }
+        while (position < target) {
+            board.move(get(position++));
+        }
+        while (position > target) {
+            board.move(get(--position) ^ 1);
+        }
+        joinedApplied = 0;
+        for (int word = 0; word < position >>> 6; word++) {
+            joinedApplied += Long.bitCount(joined[word]);
+        }
+        if ((position & 63) != 0) {
+            joinedApplied += Long.bitCount(joined[position >>> 6] & (1L << position) - 1);
+        }
+    }
+
+    // the recorded moves (applied and undone) as directions
+    //
+    public int[] toArray() {
+        int[] moves = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            moves[i] = get(i);
+        }
+        return moves;
+    }
+
+    // the number of `long`s the packed moves take, see `writeTo`
+    //
+    public int packedLength() {
+        return (length + 31) >>> 5;
+    }
+
+    // writes the recorded moves, packed 32 to a `long` (the first in the lowest bits),
+    // at the position of `out` advancing it by `8 * packedLength()` bytes
+    //
+    public void writeTo(ByteBuffer out) {
+        out.asLongBuffer().put(words, 0, packedLength());
+        out.position(out.position() + packedLength() * Long.BYTES);
+    }
+
+    // clears the joined bits of the moves from `from` (inclusive) to `to` (exclusive)
+    //
+    private void clearJoined(int from, int to) {
+        int last = (to - 1) >>> 6;
+
+        for (int word = from >>> 6; word <= last; word++) {
+            long mask = -1L;
+            if (word == from >>> 6) {
+                mask &= -1L << from;
+            }
+            if (word == last) {
+                mask &= -1L >>> (63 - ((to - 1) & 63));
+            }
+            joined[word] &= ~mask;
+        }
+    }
+
+    // whether any recorded move is joined to the one before it (see `writeJoinedTo`)
+    //
+    public boolean hasJoined() {
+        for (int word = 0; word < joinedLength(); word++) {
+            if (joined[word] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the number of `long`s the joined moves take, see `writeJoinedTo`
+    //
+    public int joinedLength() {
+        return (length + 63) >>> 6;
+    }
+
+    // writes whether every recorded move is joined to the one before it, a bit per move 64 to a `long`
+    // (the first in the lowest bit), at the position of `out` advancing it by `8 * joinedLength()` bytes
+    //
+    public void writeJoinedTo(ByteBuffer out) {
+        out.asLongBuffer().put(joined, 0, joinedLength());
+        out.position(out.position() + joinedLength() * Long.BYTES);
+    }
+
+    // reads whether each of `length` moves is joined to the one before it, as written by `writeJoinedTo`,
+    // from the position of `in` into `joined` advancing it past them
+    //
+    public static void readJoinedFrom(ByteBuffer in, boolean[] joined) {
+        int words = (joined.length + 63) >>> 6;
+
+        for (int i = 0; i < joined.length; i++) {
+            joined[i] = (in.getLong(in.position() + (i >>> 6) * Long.BYTES) >>> (i & 63) & 1) != 0;
+        }
+        in.position(in.position() + words * Long.BYTES);
+    }
+
+    // reads `length` moves written by `writeTo` from the position of `in` into `moves`
+    // advancing it past them
+    //
+    public static void readFrom(ByteBuffer in, int[] moves) {
+        int words = (moves.length + 31) >>> 5;
+
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (int) (in.getLong(in.position() + (i >>> 5) * Long.BYTES) >>> ((i & 31) << 1)) & 3;
+        }
+        in.position(in.position() + words * Long.BYTES);
+    }
+
+    // approximate number of bytes used by the moves and checkpoints
+    //
+    public long memoryUsage() {
+        long bytes = (long) (words.length + joined.length) * Long.BYTES;
+
+        for (int[] layout : checkpoints) {
+            bytes += (long) layout.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+}
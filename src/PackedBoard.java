@@ -0,0 +1,246 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Immutable, bit-packed board layout, for holding many states at once (search frontiers, corpora)
+//
+// tiles take the same whole number of bits as in `BoardCodec` (4 on boards of up to 16 cells, then 8, 16, 32)
+// and are packed into longs from the highest bits down, cell 0 first, so no tile straddles two words.
+// boards of up to 16 cells, 4x4 included, fit in a single long: as an object that is 48 bytes
+// against about 160 for an `int[][]` of rows, and just 8 through `toLong` / `fromLong`.
+//
+// the words are the big-endian bytes of `BoardCodec`'s records (zero padded to whole longs),
+// so records are read in (see `BoardCorpus.getPacked`) a word at a time.
+// equality, hashing and the solved check compare the words directly, without unpacking any tile.
+// boards of up to `MAX_RANK_CELLS` cells can also be numbered by `rank`, the inverse of `unrank`.
+//
+public final class PackedBoard {
+    // largest board whose layouts can be ranked, as `21!` doesn't fit in a long
+    public static final int MAX_RANK_CELLS = 20;
+
+    // the solved layout of the size last checked by `isSolved`, only packed again when the size changes
+    // (programs rarely handle boards of several sizes at once)
+    private static volatile PackedBoard solved;
+
+    private final int rows;
+    private final int cols;
+    private final long[] words;
+
+    private PackedBoard(int rows, int cols, long[] words) {
+        this.rows = rows;
+        this.cols = cols;
+        this.words = words;
+    }
+
+    // packs the current layout of `board`
+    //
+    public static PackedBoard of(Board board) {
+        return of(board.getRows(), board.getCols(), board.toArray());
+    }
+
+    // packs the row-major `layout` of a `rows` x `cols` board
+    //
+    public static PackedBoard of(int rows, int cols, int[] layout) {
+        int size = rows * cols;
+        int bits = BoardCodec.tileBits(size);
+        int perWord = Long.SIZE / bits;
+        long[] words = new long[(size + perWord - 1) / perWord];
+
+        for (int cell = 0; cell < size; cell++) {
+            words[cell / perWord] |= (long) layout[cell] << shift(cell, bits, perWord);
+        }
+        return new PackedBoard(rows, cols, words);
+    }
+
+    // reads the record of a `rows` x `cols` layout written by `BoardCodec.pack` at (absolute) index `offset`
+    // of `buffer`, without moving the buffer's position
+    //
+    public static PackedBoard read(ByteBuffer buffer, int offset, int rows, int cols) {
+        int bytes = BoardCodec.recordSize(rows * cols);
+        long[] words = new long[(bytes + Long.BYTES - 1) / Long.BYTES];
+        int word = 0;
+
+        for (; (word + 1) * Long.BYTES <= bytes; word++) {
+            words[word] = buffer.getLong(offset + word * Long.BYTES);
+        }
+        for (int i = word * Long.BYTES; i < bytes; i++) {
+            words[word] |= (buffer.get(offset + i) & 0xFFL) << (Long.SIZE - Byte.SIZE * (i % Long.BYTES + 1));
+        }
+        return new PackedBoard(rows, cols, words);
+    }
+
+    // packs `board` (of at most 16 cells) into a single long
+    //
+    public static long toLong(Board board) {
+        if (board.size() > 16) {
+            throw new IllegalArgumentException("Only boards of up to 16 cells fit in a long");
+        }
+        return of(board).words[0];
+    }
+
+    // the `rows` x `cols` board packed into `word` by `toLong`
+    //
+    public static PackedBoard fromLong(int rows, int cols, long word) {
+        if (rows * cols > 16) {
+            throw new IllegalArgumentException("Only boards of up to 16 cells fit in a long");
+        }
+        return new PackedBoard(rows, cols, new long[] { word });
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // number of cells (including the blank)
+    //
+    public int size() {
+        return rows * cols;
+    }
+
+    // the tile at the flattened `cell`
+    //
+    public int get(int cell) {
+        int bits = BoardCodec.tileBits(size());
+        int perWord = Long.SIZE / bits;
+
+        return (int) (words[cell / perWord] >>> shift(cell, bits, perWord)) & (int) ((1L << bits) - 1);
+    }
+
+    // the cell of the blank tile, found by scanning
+    //
+    public int getBlank() {
+        for (int cell = 0; cell < size(); cell++) {
+            if (get(cell) == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    // the unpacked row-major layout
+    //
+    public int[] toArray() {
+        int[] layout = new int[size()];
+
+        for (int cell = 0; cell < layout.length; cell++) {
+            layout[cell] = get(cell);
+        }
+        return layout;
+    }
+
+    public Board toBoard() {
+        return new Board(rows, cols, toArray());
+    }
+
+    // the first (or only) packed word, which holds the whole layout on boards of up to 16 cells
+    //
+    public long toLong() {
+        return words[0];
+    }
+
+    // whether every tile is in its sorted position
+    //
+    public boolean isSolved() {
+        PackedBoard goal = solved;
+
+        if (goal == null || goal.rows != rows || goal.cols != cols) {
+            goal = of(new Board(rows, cols));
+            solved = goal;
+        }
+        return Arrays.equals(words, goal.words);
+    }
+
+    // the index of the layout among the `size()!` permutations of its tiles,
+    // in the linear time order of Myrvold and Ruskey (not lexicographic)
+    //
+    public long rank() {
+        int size = size();
+        if (size > MAX_RANK_CELLS) {
+            throw new IllegalStateException(String.format(
+                "Only boards of up to %d cells can be ranked", MAX_RANK_CELLS
+            ));
+        }
+        int[] layout = toArray();
+        int[] inverse = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            inverse[layout[cell]] = cell;
+        }
+        long rank = 0;
+        long radix = 1;
+
+        // takes the last tile off of the permutation, swapping it with the one at its index
+        for (int n = size; n > 1; n--) {
+            int tile = layout[n - 1];
+            int cell = inverse[n - 1];
+
+            layout[n - 1] = n - 1;
+            layout[cell] = tile;
+            inverse[tile] = cell;
+            inverse[n - 1] = n - 1;
+
+            rank += tile * radix;
+            radix *= n;
+        }
+        return rank;
+    }
+
+    // the layout of a `rows` x `cols` board with the given `rank`, the inverse of `rank`
+    //
+    public static PackedBoard unrank(int rows, int cols, long rank) {
+        int size = rows * cols;
+        if (size > MAX_RANK_CELLS) {
+            throw new IllegalArgumentException(String.format(
+                "Only boards of up to %d cells can be ranked", MAX_RANK_CELLS
+            ));
+        }
+        int[] layout = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            layout[cell] = cell;
+        }
+        for (int n = size; n > 1; n--) {
+            int cell = (int) (rank % n);
+            int tile = layout[n - 1];
+
+            layout[n - 1] = layout[cell];
+            layout[cell] = tile;
+            rank /= n;
+        }
+        return of(rows, cols, layout);
+    }
+
+    // boards are equal when they have the same dimensions and layout
+    //
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PackedBoard)) {
+            return false;
+        }
+        PackedBoard board = (PackedBoard) other;
+
+        return board.rows == rows && board.cols == cols && Arrays.equals(board.words, words);
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = rows * 31L + cols;
+
+        for (long word : words) {
+            hash = (hash ^ word) * 0x9e3779b97f4a7c15L;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return toBoard().toString();
+    }
+
+    // the offset of `cell`'s bits within its word, the first cell of a word being in its highest bits
+    //
+    private static int shift(int cell, int bits, int perWord) {
+        return Long.SIZE - bits * (cell % perWord + 1);
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Optimal solver running every IDA* iteration across the workers of a `ForkJoinPool`
+//
+// each iteration first expands the tree (serially) down to a shallow depth with enough nodes to keep
+// every worker busy, then searches the subtrees below those nodes as separate fork-join tasks,
+// which idle workers steal from each other. the workers share the iteration's bound,
+// the smallest `f` value that exceeded it (the next bound) and a flag raised by the first solution found.
+//
+// as every subtree of an iteration is searched with the same bound, any solution found is exactly
+// `bound` moves long, the same optimal length the serial `IdaStarSolver` finds.
+//
+// a solver keeps its pool (and the workers' serial solvers) from one call to the next, until it is closed.
+// like the serial one it isn't thread-safe.
+//
+public class ParallelIdaStarSolver implements Solver, AutoCloseable {
+    // aim for this many subtrees per worker, so work stealing can even out their uneven sizes
+    private static final int TASKS_PER_WORKER = 32;
+    // never split deeper than this many moves
+    private static final int MAX_SPLIT_DEPTH = 16;
+
+    private final PatternHeuristic patterns;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    // one serial solver per worker thread, reused across subtrees and calls
+    private final ThreadLocal<IdaStarSolver> workers;
+
+    // statistics of the last call to `solve`
+    private long nodes;
+    private long elapsedNanos;
+
+    // a solver using all available processors
+    //
+    public ParallelIdaStarSolver(PatternHeuristic patterns) {
+        this(patterns, Runtime.getRuntime().availableProcessors());
+    }
+
+    // a solver using `parallelism` worker threads
+    //
+    public ParallelIdaStarSolver(PatternHeuristic patterns, int parallelism) {
+        this.patterns = patterns;
+        this.parallelism = parallelism;
+        pool = new ForkJoinPool(parallelism);
+        workers = ThreadLocal.withInitial(() -> new IdaStarSolver(patterns));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    public int[] solve(Board board) {
+        if (!PuzzleGenerator.isSolvable(board.toArray(), board.getRows(), board.getCols())) {
+            return null;
+        }
+        long start = System.nanoTime();
+        IdaStarSolver estimator = new IdaStarSolver(patterns);
+        LongAdder expanded = new LongAdder();
+        int bound = estimator.estimate(board);
+
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            // the subtrees of this iteration, each given by the moves leading to its root
+            List<int[]> roots = new ArrayList<int[]>();
+            AtomicInteger next = new AtomicInteger(Integer.MAX_VALUE);
+            // raised by the first solution found, or when the calling thread is interrupted
+            AtomicBoolean stop = new AtomicBoolean();
+            AtomicReference<int[]> solution = new AtomicReference<int[]>();
+
+            split(board, bound, estimator, roots, next, solution);
+
+            if (solution.get() == null) {
+                final int iterationBound = bound;
+                List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(roots.size());
+
+                for (int[] prefix : roots) {
+                    tasks.add(new RecursiveAction() {
+                        protected void compute() {
+                            if (stop.get()) {
+                                return;
+                            }
+                            IdaStarSolver worker = workers.get();
+                            int result = worker.searchBelow(board, prefix, prefix.length, iterationBound, stop);
+                            expanded.add(worker.getNodes());
+
+                            if (result == IdaStarSolver.FOUND) {
+                                if (stop.compareAndSet(false, true)) {
+                                    solution.set(worker.getSolution());
+                                }
+                            } else if (result != IdaStarSolver.STOPPED) {
+                                next.accumulateAndGet(result, Math::min);
+                            }
+                        }
+                    });
+                }
+                join(pool.submit(new RecursiveAction() {
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                }), stop);
+            }
+            if (solution.get() != null) {
+                nodes = expanded.sum();
+                elapsedNanos = System.nanoTime() - start;
+                return solution.get();
+            }
+            bound = next.get();
+        }
+    }
+
+    // waits for the subtrees of an iteration to be searched
+    //
+    // when the calling thread is interrupted meanwhile, raises `stop` for the searches still running
+    // to give up, cancels those not started yet and throws a `CancellationException`
+    // (the thread staying interrupted, as with the other solvers)
+    //
+    private static void join(ForkJoinTask<?> iteration, AtomicBoolean stop) {
+        try {
+            iteration.get();
+        } catch (InterruptedException err) {
+            stop.set(true);
+            iteration.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException err) {
+            Throwable cause = err.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // shuts the worker threads down, the solver being unusable afterwards
+    //
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    // expands the tree breadth first, level by level, until there are enough subtrees for the workers
+    // pruning nodes whose `f` value exceeds `bound` (recording the smallest such value into `next`)
+    //
+    // a solution found while splitting is stored directly into `solution`
+    //
+    private void split(
+        Board board, int bound, IdaStarSolver estimator,
+        List<int[]> roots, AtomicInteger next, AtomicReference<int[]> solution
+    ) {
+        List<int[]> level = new ArrayList<int[]>();
+        level.add(new int[0]);
+
+        for (int depth = 0; depth < MAX_SPLIT_DEPTH && level.size() < parallelism * TASKS_PER_WORKER; depth++) {
+            List<int[]> children = new ArrayList<int[]>();
+
+            for (int[] prefix : level) {
+                Board node = new Board(board);
+                for (int dir : prefix) {
+                    node.move(dir);
+                }
+                if (node.isSolved()) {
+                    solution.set(prefix);
+                    return;
+                }
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    if ((depth > 0 && dir == (prefix[depth - 1] ^ 1)) || !node.canMove(dir)) {
+                        continue;
+                    }
+                    node.move(dir);
+                    int f = depth + 1 + estimator.estimate(node);
+                    node.move(dir ^ 1);
+
+                    if (f > bound) {
+                        next.accumulateAndGet(f, Math::min);
+                        continue;
+                    }
+                    int[] child = new int[depth + 1];
+                    System.arraycopy(prefix, 0, child, 0, depth);
+                    child[depth] = dir;
+                    children.add(child);
+                }
+            }
+            level = children;
+        }
+        roots.addAll(level);
+    }
+
+    // compares this solver against the serial one on a fixed, seeded set of 4x4 boards:
+    // `java -cp bin ParallelIdaStarSolver [boards] [seed] [parallelism]`
+    //
+    // also checks that a subtree search whose `stop` flag is raised gives up within one check interval
+    //
+    // uses the 4x4 pattern databases, building them first if they haven't been (see `PatternHeuristic.forBoard`)
+    //
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        int parallelism = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+
+        PatternHeuristic patterns = PatternHeuristic.forBoard(4, 4);
+        IdaStarSolver serial = new IdaStarSolver(patterns);
+        long serialTotal = 0;
+        long parallelTotal = 0;
+
+        System.out.printf(
+            "%d boards, seed %d, %d workers, %s%n",
+            count, seed, parallelism, patterns == null ? "manhattan + linear conflicts" : "pattern databases"
+        );
+        System.out.printf("%5s %6s %12s %12s %8s%n", "board", "moves", "serial (ms)", "parallel (ms)", "speedup");
+
+        try (ParallelIdaStarSolver parallel = new ParallelIdaStarSolver(patterns, parallelism)) {
+            for (int i = 0; i < count; i++) {
+                Board board = new Board(4, 4, PuzzleGenerator.generate(4, 4, PuzzleGenerator.Mode.PERMUTATION, seed, i));
+
+                int[] expected = serial.solve(board);
+                int[] actual = parallel.solve(board);
+
+                if (expected.length != actual.length) {
+                    throw new IllegalStateException(String.format(
+                        "Board %d: parallel solution has %d moves, serial %d", i, actual.length, expected.length
+                    ));
+                }
+                serialTotal += serial.getElapsedNanos();
+                parallelTotal += parallel.getElapsedNanos();
+
+                System.out.printf(
+                    "%5d %6d %12.1f %12.1f %7.2fx%n",
+                    i, expected.length, serial.getElapsedNanos() / 1e6, parallel.getElapsedNanos() / 1e6,
+                    (double) serial.getElapsedNanos() / parallel.getElapsedNanos()
+                );
+
+                // a search whose `stop` flag is already raised gives up at the first check of it
+                int stopped = serial.searchBelow(board, new int[0], 0, expected.length, new AtomicBoolean(true));
+                if (stopped != IdaStarSolver.FOUND && stopped != IdaStarSolver.STOPPED
+                    || serial.getNodes() > IdaStarSolver.STOP_CHECK_MASK + 1) {
+                    throw new IllegalStateException(String.format(
+                        "Board %d: stopped search returned %d after %d nodes", i, stopped, serial.getNodes()
+                    ));
+                }
+            }
+            System.out.printf(
+                "total %12.1f %12.1f %7.2fx%n",
+                serialTotal / 1e6, parallelTotal / 1e6, (double) serialTotal / parallelTotal
+            );
+        }
+    }
+}
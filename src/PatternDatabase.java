@@ -0,0 +1,441 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+// A pattern database: the exact number of moves of a subset ("pattern") of the tiles
+// needed to bring them to their solved cells, for every placement of those tiles
+//
+// only moves of the pattern tiles are counted (the other tiles are indistinguishable from the blank),
+// so the databases of disjoint patterns can be added together and still never overestimate.
+//
+// every placement of the `k` pattern tiles is stored in a single nibble:
+// the distance minus the manhattan distance of the pattern tiles is always even,
+// so half of that excess is stored, saturating at 15 (which keeps it a lower bound).
+// the nibbles are persisted to a file that is then memory-mapped with `FileChannel.map`,
+// so loading is near instant and several JVMs share the same (read-only) pages.
+//
+public class PatternDatabase {
+    // "SPDB" in ASCII, identifies the file format
+    private static final int MAGIC = 0x53504442;
+    private static final int VERSION = 1;
+    // marks placements not yet reached during the breadth-first search
+    private static final byte UNSEEN = (byte) 0xFF;
+    // largest excess (halved) that fits in a nibble
+    private static final int MAX_EXCESS = 15;
+    // number of placements handled by a single task of the parallel search
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private final int rows;
+    private final int cols;
+    // the tiles in this pattern
+    private final int[] pattern;
+    // the nibble packed entries, two placements per byte
+    private final ByteBuffer data;
+
+    private PatternDatabase(int rows, int cols, int[] pattern, ByteBuffer data) {
+        this.rows = rows;
+        this.cols = cols;
+        this.pattern = pattern;
+        this.data = data;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // the tiles in this pattern (a copy)
+    //
+    public int[] getPattern() {
+        return pattern.clone();
+    }
+
+    // number of distinct placements of the pattern tiles, `n! / (n - k)!`
+    //
+    public static int entries(int cells, int k) {
+        long count = 1;
+
+        for (int i = 0; i < k; i++) {
+            count *= cells - i;
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "A pattern of %d tiles on %d cells is too large", k, cells
+            ));
+        }
+        return (int) count;
+    }
+
+    // the number of moves needed to solve the pattern tiles
+    // where `cells[i]` is the cell of the `i`-th tile of the pattern
+    //
+    public int lookup(int[] cells) {
+        return lookup(rank(cells, rows * cols), manhattan(cells));
+    }
+
+    // the number of moves needed for the placement ranked `index`,
+    // whose pattern tiles have a total manhattan distance of `manhattan`
+    //
+    public int lookup(int index, int manhattan) {
+        int packed = data.get(index >>> 1);
+        int excess = (index & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF;
+        return manhattan + 2 * excess;
+    }
+
+    // the total manhattan distance of the pattern tiles at `cells`
+    //
+    public int manhattan(int[] cells) {
+        int distance = 0;
+
+        for (int i = 0; i < pattern.length; i++) {
+            int goal = pattern[i] - 1;
+            distance += Math.abs(cells[i] / cols - goal / cols) + Math.abs(cells[i] % cols - goal % cols);
+        }
+        return distance;
+    }
+
+    // ranks a placement of distinct cells on a board of `size` (at most 32) cells
+    // to a unique index in `[0, size! / (size - k)!)`
+    //
+    // each cell is replaced by its index among the cells not already used by earlier tiles,
+    // giving the digits of a mixed radix number with bases `size, size - 1, ..., size - k + 1`
+    //
+    public static int rank(int[] cells, int size) {
+        int index = 0;
+        int used = 0;
+
+        for (int i = 0; i < cells.length; i++) {
+            int cell = cells[i];
+            int digit = cell - Integer.bitCount(used & ((1 << cell) - 1));
+
+            index = index * (size - i) + digit;
+            used |= 1 << cell;
+        }
+        return index;
+    }
+
+    // the inverse of `rank` for boards of `size` cells, writing the placement into `cells`
+    //
+    public static void unrank(int index, int size, int k, int[] cells) {
+        // peels off the mixed radix digits, least significant (last tile) first
+        int[] digits = cells;
+        for (int i = k - 1; i >= 0; i--) {
+            int base = size - i;
+            digits[i] = index % base;
+            index /= base;
+        }
+        int used = 0;
+
+        for (int i = 0; i < k; i++) {
+            // finds the `digit`-th free cell
+            int cell = -1;
+            for (int free = digits[i]; free >= 0; free--) {
+                cell++;
+                while ((used & (1 << cell)) != 0) {
+                    cell++;
+                }
+            }
+            cells[i] = cell;
+            used |= 1 << cell;
+        }
+    }
+
+    // builds the database of `pattern` on a `rows` x `cols` board
+    // with a level-synchronous breadth-first search, expanding every level in parallel
+    //
+    // gives up with a `CancellationException` between levels once the calling thread is interrupted
+    //
+    // the search runs over the pattern tiles' cells plus the blank, where only moves of pattern tiles cost anything.
+    // moving the blank around the cells free of pattern tiles is free, so the blank is represented by
+    // the lowest cell of the region of free cells it can reach, and every such region is expanded as a whole.
+    // the stored value of a placement is then the least distance over all of its blank regions.
+    //
+    public static PatternDatabase build(int rows, int cols, int[] pattern) {
+        int size = rows * cols;
+        int k = pattern.length;
+        // the blank is the last (least significant) digit, so the states of a placement are contiguous
+        int states = entries(size, k + 1);
+
+        if (size > 32) {
+            throw new IllegalArgumentException("Pattern databases support boards of at most 32 cells");
+        }
+        byte[] distances = new byte[states];
+        Arrays.fill(distances, UNSEEN);
+
+        int[] goal = new int[k + 1];
+        int occupied = 0;
+        for (int i = 0; i < k; i++) {
+            goal[i] = pattern[i] - 1;
+            occupied |= 1 << goal[i];
+        }
+        goal[k] = Integer.numberOfTrailingZeros(region(size - 1, ~occupied, rows, cols));
+        distances[rank(goal, size)] = 0;
+
+        int chunks = (states + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        AtomicBoolean expanded = new AtomicBoolean(true);
+
+        // several workers may mark the same state, but always with the same distance,
+        // and reads only ever look for the current level, so plain byte writes are safe here
+        for (int level = 0; expanded.getAndSet(false); level++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            final byte current = (byte) level;
+            final byte next = (byte) (level + 1);
+
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int[] cells = new int[k + 1];
+                boolean found = false;
+                int end = Math.min(states, (chunk + 1) * CHUNK_SIZE);
+
+                for (int index = chunk * CHUNK_SIZE; index < end; index++) {
+                    if (distances[index] != current) {
+                        continue;
+                    }
+                    unrank(index, size, k + 1, cells);
+                    int tiles = 0;
+                    for (int i = 0; i < k; i++) {
+                        tiles |= 1 << cells[i];
+                    }
+                    int reachable = region(cells[k], ~tiles, rows, cols);
+
+                    for (int i = 0; i < k; i++) {
+                        int from = cells[i];
+
+                        for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                            int to = neighbor(from, dir, rows, cols);
+
+                            if (to == -1 || (reachable & (1 << to)) == 0) {
+                                continue;
+                            }
+                            // the tile slides into the blank at `to`, leaving the blank at `from`
+                            int moved = tiles & ~(1 << from) | (1 << to);
+                            cells[i] = to;
+                            cells[k] = Integer.numberOfTrailingZeros(region(from, ~moved, rows, cols));
+                            int neighbor = rank(cells, size);
+                            cells[i] = from;
+
+                            if (distances[neighbor] == UNSEEN) {
+                                distances[neighbor] = next;
+                                found = true;
+                            }
+                        }
+                    }
+                }
+                if (found) {
+                    expanded.set(true);
+                }
+            });
+        }
+        return new PatternDatabase(rows, cols, pattern.clone(), pack(rows, cols, pattern, distances));
+    }
+
+    // the cells (as a bit mask) reachable from `start` by only passing through the cells in `free`
+    //
+    private static int region(int start, int free, int rows, int cols) {
+        int size = rows * cols;
+        int all = size == 32 ? -1 : (1 << size) - 1;
+        int firstCol = 0;
+        for (int i = 0; i < rows; i++) {
+            firstCol |= 1 << (i * cols);
+        }
+        int lastCol = firstCol << (cols - 1);
+
+        free &= all;
+        int region = 1 << start;
+
+        while (true) {
+            int grown = region
+                | (region >>> cols)
+                | (region << cols)
+                | ((region >>> 1) & ~lastCol)
+                | ((region << 1) & ~firstCol);
+            grown &= free | (1 << start);
+
+            if (grown == region) {
+                return region;
+            }
+            region = grown;
+        }
+    }
+
+    private static int neighbor(int cell, int dir, int rows, int cols) {
+        switch (dir) {
+            case Board.UP:
+                return cell >= cols ? cell - cols : -1;
+            case Board.DOWN:
+                return cell + cols < rows * cols ? cell + cols : -1;
+            case Board.LEFT:
+                return cell % cols != 0 ? cell - 1 : -1;
+            default:
+                return cell % cols != cols - 1 ? cell + 1 : -1;
+        }
+    }
+
+    // reduces the distances of every (placement, blank) state to the nibble packed excess
+    // of the best blank region of each placement over its manhattan distance
+    //
+    private static ByteBuffer pack(int rows, int cols, int[] pattern, byte[] distances) {
+        int size = rows * cols;
+        int k = pattern.length;
+        int entries = entries(size, k);
+        int blanks = size - k;
+        byte[] packed = new byte[(entries + 1) / 2];
+        PatternDatabase layout = new PatternDatabase(rows, cols, pattern, null);
+
+        IntStream.range(0, packed.length).parallel().forEach(i -> {
+            int[] cells = new int[k];
+            int value = 0;
+
+            for (int half = 0; half < 2; half++) {
+                int index = i * 2 + half;
+
+                if (index >= entries) {
+                    break;
+                }
+                int distance = Integer.MAX_VALUE;
+                for (int state = index * blanks; state < (index + 1) * blanks; state++) {
+                    if (distances[state] != UNSEEN) {
+                        distance = Math.min(distance, distances[state] & 0xFF);
+                    }
+                }
+                unrank(index, size, k, cells);
+                int excess = (distance - layout.manhattan(cells)) / 2;
+                value |= Math.min(excess, MAX_EXCESS) << (half * 4);
+            }
+            packed[i] = (byte) value;
+        });
+        return ByteBuffer.wrap(packed);
+    }
+
+    // writes the database to `path` (atomically, through a temporary file)
+    //
+    public void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize(pattern.length)).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(pattern.length);
+        for (int tile : pattern) {
+            header.putInt(tile);
+        }
+        header.flip();
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer body = data.duplicate();
+                body.clear();
+                ByteBuffer[] parts = { header, body };
+
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(parts);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException err) {
+            Files.deleteIfExists(temp);
+            throw err;
+        }
+    }
+
+    // memory-maps a database previously written by `save`
+    //
+    // a truncated or corrupt file is reported as an `IOException`, like a missing one
+    //
+    public static PatternDatabase load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (mapped.remaining() < headerSize(0) || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("Not a pattern database: " + path);
+            }
+            int rows = mapped.getInt();
+            int cols = mapped.getInt();
+            int k = mapped.getInt();
+            long size = (long) rows * cols;
+
+            if (rows < 1 || cols < 1 || size > Integer.MAX_VALUE || k < 1 || k >= size) {
+                throw new IOException(String.format("Invalid pattern database of %d tiles on %dx%d: %s", k, rows, cols, path));
+            }
+            int[] pattern = new int[k];
+            for (int i = 0; i < pattern.length; i++) {
+                pattern[i] = mapped.getInt();
+                if (pattern[i] < 1 || pattern[i] >= size) {
+                    throw new IOException("Corrupt pattern database: " + path);
+                }
+            }
+            ByteBuffer data = mapped.slice();
+
+            if (data.capacity() != (entries((int) size, pattern.length) + 1) / 2) {
+                throw new IOException("Truncated pattern database: " + path);
+            }
+            return new PatternDatabase(rows, cols, pattern, data);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException err) {
+            // `IllegalArgumentException`s from `entries`, for patterns too large to have been saved
+            throw new IOException("Corrupt pattern database: " + path, err);
+        }
+    }
+
+    private static int headerSize(int k) {
+        return Integer.BYTES * (5 + k);
+    }
+
+    // the file name a database of `pattern` on a `rows` x `cols` board is stored under
+    //
+    public static String fileName(int rows, int cols, int[] pattern) {
+        StringBuilder name = new StringBuilder(String.format("pdb-%dx%d", rows, cols));
+
+        for (int tile : pattern) {
+            name.append('-').append(tile);
+        }
+        return name.append(".bin").toString();
+    }
+
+    // the directory databases are stored in
+    // configurable with `-Dslider.pdb.dir=...` (defaults to `pdb` in the working directory)
+    //
+    public static Path directory() {
+        return Paths.get(System.getProperty("slider.pdb.dir", "pdb"));
+    }
+
+    // precomputes (or rebuilds) the databases used for a `rows` x `cols` board:
+    // `java -cp bin PatternDatabase <rows> <cols>`
+    //
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int[][] partition = PatternHeuristic.partition(rows, cols);
+
+        if (partition == null) {
+            System.err.printf("There are no pattern databases for %dx%d boards%n", rows, cols);
+            System.exit(1);
+        }
+        for (int[] pattern : partition) {
+            long start = System.nanoTime();
+            PatternDatabase database = build(rows, cols, pattern);
+            Path path = directory().resolve(fileName(rows, cols, pattern));
+            database.save(path);
+
+            System.out.printf(
+                "%s: %d entries in %.1fs%n",
+                path, entries(rows * cols, pattern.length), (System.nanoTime() - start) / 1e9
+            );
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Additive heuristic made up of the pattern databases of a disjoint partition of the tiles
+//
+// the partitions are fixed per board size, 6-6-3 for 4x4 and 5-5-5-5-4 for 5x5
+// (the other sizes up to 25 cells simply group the tiles in row-major order, 5 at a time).
+// summing the databases of disjoint patterns is admissible as each only counts moves of its own tiles.
+//
+public class PatternHeuristic {
+    // largest pattern used by the generic partitions,
+    // the search over `25! / 19!` (placement, blank) states of a 5 tile pattern on 5x5 takes about 128 MB
+    private static final int MAX_PATTERN_SIZE = 5;
+    // largest board that databases are built for on demand (instead of through `PatternDatabase.main`),
+    // 4x4 taking about 25 s once, after which they are loaded from `PatternDatabase.directory()`
+    private static final int MAX_ON_DEMAND_TILES = 16;
+    // largest board that a partition is defined for
+    private static final int MAX_TILES = 25;
+
+    private final PatternDatabase[] databases;
+    // the database (`patternOf`) and the slot within its pattern (`slotOf`) of every tile
+    private final int[] patternOf;
+    private final int[] slotOf;
+
+    public PatternHeuristic(PatternDatabase[] databases) {
+        this.databases = databases.clone();
+
+        int size = databases[0].getRows() * databases[0].getCols();
+        patternOf = new int[size];
+        slotOf = new int[size];
+
+        for (int p = 0; p < databases.length; p++) {
+            int[] pattern = databases[p].getPattern();
+
+            for (int slot = 0; slot < pattern.length; slot++) {
+                patternOf[pattern[slot]] = p;
+                slotOf[pattern[slot]] = slot;
+            }
+        }
+    }
+
+    // the disjoint partition of the tiles that databases are built for on a `rows` x `cols` board
+    // or `null` when the board is too large for pattern databases
+    //
+    public static int[][] partition(int rows, int cols) {
+        int size = rows * cols;
+
+        if (rows == 4 && cols == 4) {
+            return new int[][] {
+                { 1, 5, 6, 9, 10, 13 },
+                { 7, 8, 11, 12, 14, 15 },
+                { 2, 3, 4 },
+            };
+        }
+        if (rows == 5 && cols == 5) {
+            return new int[][] {
+                { 1, 2, 3, 6, 7 },
+                { 4, 5, 8, 9, 10 },
+                { 11, 12, 16, 17, 21 },
+                { 13, 14, 15, 18, 19 },
+                { 20, 22, 23, 24 },
+            };
+        }
+        if (size > MAX_TILES) {
+            return null;
+        }
+        List<int[]> patterns = new ArrayList<int[]>();
+
+        for (int first = 1; first < size; first += MAX_PATTERN_SIZE) {
+            int[] pattern = new int[Math.min(MAX_PATTERN_SIZE, size - first)];
+
+            for (int i = 0; i < pattern.length; i++) {
+                pattern[i] = first + i;
+            }
+            patterns.add(pattern);
+        }
+        return patterns.toArray(new int[0][]);
+    }
+
+    // memory-maps the databases for a `rows` x `cols` board from `PatternDatabase.directory()`
+    //
+    // missing databases are built (and saved) when the board is small enough (see `needsBuilding`),
+    // otherwise (or for boards without a partition) returns `null`
+    //
+    // building can take a while, so it is meant to run off the event dispatch thread, and gives up
+    // with a `CancellationException` once the calling thread is interrupted
+    //
+    public static PatternHeuristic forBoard(int rows, int cols) throws IOException {
+        int[][] partition = partition(rows, cols);
+
+        if (partition == null) {
+            return null;
+        }
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+
+        for (int p = 0; p < partition.length; p++) {
+            Path path = pathOf(rows, cols, partition[p]);
+
+            if (!Files.exists(path)) {
+                if (rows * cols > MAX_ON_DEMAND_TILES) {
+                    return null;
+                }
+                PatternDatabase.build(rows, cols, partition[p]).save(path);
+            }
+            databases[p] = PatternDatabase.load(path);
+        }
+        return new PatternHeuristic(databases);
+    }
+
+    // whether `forBoard` would first build some of the databases of a `rows` x `cols` board,
+    // so that callers can tell the user about the wait
+    //
+    public static boolean needsBuilding(int rows, int cols) {
+        int[][] partition = partition(rows, cols);
+
+        if (partition == null || rows * cols > MAX_ON_DEMAND_TILES) {
+            return false;
+        }
+        for (int[] pattern : partition) {
+            if (!Files.exists(pathOf(rows, cols, pattern))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Path pathOf(int rows, int cols, int[] pattern) {
+        return PatternDatabase.directory().resolve(PatternDatabase.fileName(rows, cols, pattern));
+    }
+
+    public int getRows() {
+        return databases[0].getRows();
+    }
+
+    public int getCols() {
+        return databases[0].getCols();
+    }
+
+    // number of databases (disjoint patterns) summed
+    //
+    public int patterns() {
+        return databases.length;
+    }
+
+    // the index of the pattern containing `tile` and the tile's slot within that pattern
+    //
+    public int patternOf(int tile) {
+        return patternOf[tile];
+    }
+
+    public int slotOf(int tile) {
+        return slotOf[tile];
+    }
+
+    // the tiles of the `p`-th pattern
+    //
+    public int[] getPattern(int p) {
+        return databases[p].getPattern();
+    }
+
+    // the value of the `p`-th database where `cells[i]` is the cell of the pattern's `i`-th tile
+    //
+    public int lookup(int p, int[] cells) {
+        return databases[p].lookup(cells);
+    }
+
+    // the heuristic value of the whole `board`
+    //
+    public int estimate(Board board) {
+        int total = 0;
+
+        for (int p = 0; p < databases.length; p++) {
+            int[] pattern = databases[p].getPattern();
+            int[] cells = new int[pattern.length];
+
+            for (int i = 0; i < pattern.length; i++) {
+                cells[i] = board.indexOf(pattern[i]);
+            }
+            total += databases[p].lookup(cells);
+        }
+        return total;
+    }
+}
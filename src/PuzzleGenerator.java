@@ -0,0 +1,300 @@
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Generates random, solvable starting configurations for a `Board`
+//
+// every method takes the `RandomGenerator` to draw from, so boards can be reproduced from a seed.
+// the overloads without one use the calling thread's `ThreadLocalRandom`,
+// which unlike `Math.random()` is not shared (and contended) between threads.
+//
+public class PuzzleGenerator {
+    // the strategies available for generating a puzzle
+    public enum Mode {
+        // draws a uniformly random solvable permutation directly, O(rows * cols)
+        PERMUTATION,
+        // plays `(rows * cols) ^ 2` random valid moves backwards from the solved board
+        RANDOM_WALK;
+
+        // parses a mode from its (case-insensitive) name
+        // falling back to `PERMUTATION` for unknown values
+        //
+        public static Mode parse(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            return PERMUTATION;
+        }
+    }
+
+    private PuzzleGenerator() {}
+
+    // odd constant used to spread consecutive batch indices apart before seeding
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // most boards generated at once by `streamDistinct`
+    private static final int DISTINCT_ROUND = 1 << 16;
+    // moves of a random walk between progress reports (and checks for cancellation)
+    private static final int WALK_STEP = 1 << 20;
+
+    private static final Metrics.Timer SHUFFLES = Metrics.timer("shuffle");
+
+    // shuffles `board` in-place using the given `mode`
+    //
+    public static void generate(Board board, Mode mode) {
+        generate(board, mode, ThreadLocalRandom.current());
+    }
+
+    public static void generate(Board board, Mode mode, RandomGenerator random) {
+        generate(board, mode, random, percent -> {});
+    }
+
+    // as `generate`, reporting how far along it is (in percent) to `progress`
+    //
+    // a random walk can take seconds on large boards: it reports every `WALK_STEP` moves,
+    // then also giving up with a `CancellationException` if the calling thread was interrupted
+    //
+    public static void generate(Board board, Mode mode, RandomGenerator random, IntConsumer progress) {
+        GameEvents.Shuffle event = new GameEvents.Shuffle();
+        event.begin();
+        long start = SHUFFLES.start();
+
+        if (mode == Mode.RANDOM_WALK) {
+            board.reset();
+            randomWalk(board, (int) Math.pow(board.size(), 2), random, progress);
+        } else {
+            randomPermutation(board, random);
+        }
+        progress.accept(100);
+        SHUFFLES.stop(start);
+
+        if (event.shouldCommit()) {
+            event.rows = board.getRows();
+            event.cols = board.getCols();
+            event.mode = mode.name();
+            event.commit();
+        }
+    }
+
+    // the generator used for the board at `index` of the batch identified by `seed`
+    //
+    // each board gets its own generator derived only from `(seed, index)`,
+    // so a batch comes out identical no matter how many threads produce it or in what order
+    //
+    public static SplittableRandom randomFor(long seed, long index) {
+        return new SplittableRandom(seed + index * GOLDEN_GAMMA).split();
+    }
+
+    // generates the row-major layout of the board at `index` of the batch identified by `seed`
+    //
+    public static int[] generate(int rows, int cols, Mode mode, long seed, long index) {
+        Board board = new Board(rows, cols);
+        generate(board, mode, randomFor(seed, index));
+        return board.toArray();
+    }
+
+    // a parallel (but ordered) stream over the layouts of the first `count` boards
+    // of the batch identified by `seed`, running on the common fork-join pool
+    //
+    // intended for building large corpora without holding them all in memory at once
+    //
+    public static Stream<int[]> stream(int rows, int cols, Mode mode, long seed, long count) {
+        return LongStream.range(0, count)
+            .parallel()
+            .mapToObj(index -> generate(rows, cols, mode, seed, index));
+    }
+
+    // a stream over the layouts of the first `count` distinct boards of the batch identified by `seed`,
+    // skipping those whose layout was already added to `seen` (by this stream or any other using it)
+    //
+    // the generating threads deduplicate through the lock-free table as they go, so it is lossy:
+    // a duplicate can slip through once its entry has been replaced, which is rare while the table has
+    // an order of magnitude more entries than `count`. when duplicates do occur (on boards with few layouts)
+    // which copy is kept depends on the threads' timing, so the stream is only reproducible without any.
+    //
+    public static Stream<int[]> streamDistinct(
+        int rows, int cols, Mode mode, long seed, long count, TranspositionTable seen
+    ) {
+        if (count > solvableLayouts(rows * cols) - 1) {
+            throw new IllegalArgumentException(String.format(
+                "A %dx%d board has fewer than %d distinct shuffled layouts", rows, cols, count
+            ));
+        }
+        // the boards are generated a round of at most `DISTINCT_ROUND` at a time, as many as are still
+        // missing, so rounds run in parallel without having to stop at an exact number of boards
+        long[] next = { 0 };
+        long[] found = { 0 };
+
+        return Stream.iterate(0, round -> round + 1)
+            .takeWhile(round -> found[0] < count)
+            .flatMap(round -> {
+                long first = next[0];
+                next[0] += Math.min(count - found[0], DISTINCT_ROUND);
+
+                List<int[]> layouts = LongStream.range(first, next[0])
+                    .parallel()
+                    .mapToObj(index -> {
+                        Board board = new Board(rows, cols);
+                        generate(board, mode, randomFor(seed, index));
+                        return board;
+                    })
+                    .filter(board -> seen.add(board.getHash()))
+                    .map(Board::toArray)
+                    .collect(Collectors.toList());
+
+                found[0] += layouts.size();
+                return layouts.stream();
+            });
+    }
+
+    // the number of solvable layouts of a board of `size` cells (`size! / 2`), or `Long.MAX_VALUE` if more
+    //
+    private static long solvableLayouts(int size) {
+        long layouts = 1;
+
+        for (int n = 3; n <= size; n++) {
+            if (layouts > Long.MAX_VALUE / n) {
+                return Long.MAX_VALUE;
+            }
+            layouts *= n;
+        }
+        return layouts;
+    }
+
+    // generates the layouts of the first `count` boards of the batch identified by `seed`
+    // using a dedicated fork-join pool of `parallelism` worker threads
+    //
+    public static int[][] generateBatch(
+        int rows, int cols, Mode mode, long seed, int count, int parallelism
+    ) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.submit(
+                () -> stream(rows, cols, mode, seed, count)
+                    .collect(Collectors.toList())
+                    .toArray(new int[0][])
+            ).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // overwrites `board` with a uniformly random solvable permutation
+    //
+    // shuffles all the tiles with Fisher-Yates and, if the result is unsolvable,
+    // swaps the first two numbered tiles which flips the permutation's parity.
+    // as that swap is a bijection between unsolvable and solvable layouts
+    // the result stays uniformly distributed over all the solvable ones.
+    //
+    public static void randomPermutation(Board board) {
+        randomPermutation(board, ThreadLocalRandom.current());
+    }
+
+    public static void randomPermutation(Board board, RandomGenerator random) {
+        int[] layout = new int[board.size()];
+
+        // re-draws in the (rare, for tiny boards) case of landing on the solved layout
+        do {
+            for (int cell = 0; cell < layout.length; cell++) {
+                layout[cell] = board.goalTile(cell);
+            }
+            for (int i = layout.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int temp = layout[i];
+                layout[i] = layout[j];
+                layout[j] = temp;
+            }
+            if (!isSolvable(layout, board.getRows(), board.getCols())) {
+                int first = layout[0] == 0 ? 1 : 0;
+                int second = layout[first + 1] == 0 ? first + 2 : first + 1;
+
+                int temp = layout[first];
+                layout[first] = layout[second];
+                layout[second] = temp;
+            }
+            board.setTiles(layout);
+        } while (board.isSolved());
+    }
+
+    // method to aid in generate the starting grid configuration
+    // by randomly performing valid moves starting from the current configuration
+    //
+    // performs `count` number of moves backwrads to generate a random configuration
+    // never immediately undoing the previous move
+    //
+    public static void randomWalk(Board board, int count) {
+        randomWalk(board, count, ThreadLocalRandom.current());
+    }
+
+    public static void randomWalk(Board board, int count, RandomGenerator random) {
+        randomWalk(board, count, random, percent -> {});
+    }
+
+    public static void randomWalk(Board board, int count, RandomGenerator random, IntConsumer progress) {
+        int[] options = new int[4];
+        int previous = -1;
+
+        for (int i = 0; i < count; i++) {
+            if (i % WALK_STEP == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                progress.accept((int) (100L * i / count));
+            }
+            int size = 0;
+
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                if (board.canMove(dir) && dir != (previous ^ 1)) {
+                    options[size++] = dir;
+                }
+            }
+            previous = options[random.nextInt(size)];
+            board.move(previous);
+        }
+    }
+
+    // whether the row-major `layout` can be slid into the solved configuration
+    //
+    // every move is a transposition with the blank, so it flips the parity of the permutation
+    // and also moves the blank one step, flipping the parity of its (manhattan) distance from the bottom-right.
+    // the two parities therefore have to agree for the layout to be solvable.
+    //
+    // the permutation's parity is counted via its cycle decomposition in O(rows * cols)
+    //
+    public static boolean isSolvable(int[] layout, int rows, int cols) {
+        int size = layout.length;
+        boolean[] visited = new boolean[size];
+        int transpositions = 0;
+        int blankCell = -1;
+
+        for (int cell = 0; cell < size; cell++) {
+            if (layout[cell] == 0) {
+                blankCell = cell;
+            }
+            if (visited[cell]) {
+                continue;
+            }
+            // a cycle of length `k` is made up of `k - 1` transpositions
+            int length = 0;
+            for (int i = cell; !visited[i]; length++) {
+                visited[i] = true;
+                // follows the tile at `i` to the cell it belongs at
+                i = layout[i] == 0 ? size - 1 : layout[i] - 1;
+            }
+            transpositions += length - 1;
+        }
+        int distance = (rows - 1 - blankCell / cols) + (cols - 1 - blankCell % cols);
+
+        return transpositions % 2 == distance % 2;
+    }
+}
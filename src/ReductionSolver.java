@@ -0,0 +1,377 @@
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+// Fast, non-optimal solver for boards of any size
+//
+// reduces the puzzle one line at a time: the top row of the unsolved region is solved when the region
+// is at least as tall as it is wide, otherwise its left column, until only a 2x2 region is left,
+// which is then rotated into place.
+// the last two tiles of every line are parked beside each other and rotated in together,
+// falling back to a tiny search over a 3x2 window when the last tile is caught behind the first.
+// tiles are walked to their targets one step at a time, routing the blank around the tile and the
+// already solved cells with a breadth-first search over the (at most `rows * cols`) unsolved cells.
+//
+// runs in O((rows + cols) * (rows * cols) ^ 2) time in the worst case (milliseconds for 30x30)
+// and O(rows * cols) memory, with all scratch space allocated once per board size.
+// a solver instance is not thread-safe, but can be reused for any number of boards.
+//
+public class ReductionSolver implements Solver {
+    private int rows;
+    private int cols;
+
+    // working copy of the board, moves are applied to it as they are emitted
+    private Board board;
+    // where the moves are emitted to
+    private IntConsumer sink;
+
+    // cells that are solved and must not be disturbed any more
+    private boolean[] locked;
+    // breadth-first search scratch space: the queue, the direction each cell was reached by
+    // and the search (`generation`) that last visited every cell, so nothing needs clearing between searches
+    private int[] queue;
+    private int[] via;
+    private int[] visited;
+    private int generation;
+    // directions of the paths found for the tile being moved (`route`) and for the blank (`path`)
+    private int[] route;
+    private int[] path;
+
+    // returns the moves (directions of the blank) that solve `board`,
+    // with any move immediately followed by its inverse cancelled out
+    //
+    public int[] solve(Board board) {
+        if (!PuzzleGenerator.isSolvable(board.toArray(), board.getRows(), board.getCols())) {
+            return null;
+        }
+        int[][] moves = { new int[64] };
+        int[] length = { 0 };
+
+        solve(board, dir -> {
+            if (length[0] > 0 && moves[0][length[0] - 1] == (dir ^ 1)) {
+                length[0]--;
+                return;
+            }
+            if (length[0] == moves[0].length) {
+                moves[0] = Arrays.copyOf(moves[0], length[0] * 2);
+            }
+            moves[0][length[0]++] = dir;
+        });
+        return Arrays.copyOf(moves[0], length[0]);
+    }
+
+    // streams the moves (directions of the blank) that solve `board` to `moves` as they are found
+    //
+    // `board` must be solvable, and is itself left untouched
+    //
+    public void solve(Board board, IntConsumer moves) {
+        init(board);
+        sink = moves;
+
+        int top = 0;
+        int left = 0;
+
+        while (rows - top > 2 || cols - left > 2) {
+            if (rows - top >= cols - left) {
+                solveRow(top, left);
+                top++;
+            } else {
+                solveColumn(top, left);
+                left++;
+            }
+        }
+        solveCorner(top, left);
+
+        this.board = null;
+        sink = null;
+    }
+
+    // copies `board` and (re)allocates the scratch space when the size changes
+    //
+    private void init(Board board) {
+        int size = board.size();
+
+        if (locked == null || locked.length != size) {
+            locked = new boolean[size];
+            queue = new int[size];
+            via = new int[size];
+            visited = new int[size];
+            route = new int[size];
+            path = new int[size];
+        } else {
+            Arrays.fill(locked, false);
+        }
+        rows = board.getRows();
+        cols = board.getCols();
+        this.board = new Board(board);
+    }
+
+    // solves row `top` from column `left` onwards
+    //
+    private void solveRow(int top, int left) {
+        int right = cols - 1;
+
+        for (int j = left; j < right - 1; j++) {
+            place(top, j);
+        }
+        finishLine(
+            top * cols + right - 1, top * cols + right,
+            (top + 1) * cols + right - 1, (top + 1) * cols + right,
+            Board.RIGHT, Board.DOWN,
+            top, right - 1, 3, 2
+        );
+    }
+
+    // solves column `left` from row `top` downwards, mirroring `solveRow`
+    //
+    private void solveColumn(int top, int left) {
+        int bottom = rows - 1;
+
+        for (int i = top; i < bottom - 1; i++) {
+            place(i, left);
+        }
+        finishLine(
+            (bottom - 1) * cols + left, bottom * cols + left,
+            (bottom - 1) * cols + left + 1, bottom * cols + left + 1,
+            Board.DOWN, Board.RIGHT,
+            bottom - 1, left, 2, 3
+        );
+    }
+
+    // places the last two tiles of a line, which belong at `firstCell` and `lastCell`,
+    // where `firstInner` and `lastInner` are the cells beside them on the unsolved side
+    // and `across` / `inward` are the directions from `firstCell` to `lastCell` / `lastCell` to `lastInner`
+    //
+    // parks the first tile at `lastCell` and the last one at `lastInner`,
+    // then rotates both into place by moving the blank from `firstCell` across and then inward.
+    // when the last tile gets stuck in `firstCell` behind the parked first tile,
+    // both are instead solved by a search within the window of `height` x `width` cells at (`top`, `left`)
+    //
+    private void finishLine(
+        int firstCell, int lastCell, int firstInner, int lastInner,
+        int across, int inward,
+        int top, int left, int height, int width
+    ) {
+        int first = board.goalTile(firstCell);
+        int last = board.goalTile(lastCell);
+
+        if (board.indexOf(first) == firstCell && board.indexOf(last) == lastCell) {
+            locked[firstCell] = true;
+            locked[lastCell] = true;
+            return;
+        }
+        moveTile(first, lastCell);
+        locked[lastCell] = true;
+
+        // `firstCell` is a dead end once `lastCell` is locked,
+        // so a blank in it can only get out by pushing the last tile in
+        if (board.getBlank() == firstCell && board.indexOf(last) == firstInner) {
+            emit(inward);
+        }
+        if (board.indexOf(last) == firstCell) {
+            locked[firstCell] = true;
+            moveBlank(firstInner);
+            locked[firstCell] = false;
+            locked[lastCell] = false;
+
+            solveWindow(first, firstCell, last, lastCell, top, left, height, width);
+        } else {
+            moveTile(last, lastInner);
+            locked[lastInner] = true;
+
+            moveBlank(firstCell);
+            emit(across);
+            emit(inward);
+            locked[lastInner] = false;
+        }
+        locked[firstCell] = true;
+        locked[lastCell] = true;
+    }
+
+    // moves tiles `first` and `last` (and the blank), all within the window of `height` x `width` cells
+    // at (`top`, `left`), to `firstCell` and `lastCell` with a breadth-first search over their positions,
+    // only ever moving the blank within the window
+    //
+    private void solveWindow(
+        int first, int firstCell, int last, int lastCell,
+        int top, int left, int height, int width
+    ) {
+        int cells = height * width;
+        int states = cells * cells * cells;
+        int[] parent = new int[states];
+        int[] moves = new int[states];
+        int[] pending = new int[states];
+        Arrays.fill(parent, -1);
+
+        int start = (local(board.indexOf(first), top, left, width) * cells
+            + local(board.indexOf(last), top, left, width)) * cells
+            + local(board.getBlank(), top, left, width);
+        int goal = local(firstCell, top, left, width) * cells + local(lastCell, top, left, width);
+        int head = 0;
+        int tail = 0;
+
+        pending[tail++] = start;
+        parent[start] = start;
+
+        while (head < tail) {
+            int state = pending[head++];
+
+            if (state / cells == goal) {
+                // unwinds the moves back to the start, then plays them forwards
+                int length = 0;
+                for (int at = state; at != start; at = parent[at]) {
+                    pending[length++] = moves[at];
+                }
+                for (int k = length - 1; k >= 0; k--) {
+                    emit(pending[k]);
+                }
+                return;
+            }
+            int firstAt = state / (cells * cells);
+            int lastAt = state / cells % cells;
+            int blankAt = state % cells;
+
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                int row = blankAt / width + (dir == Board.UP ? -1 : dir == Board.DOWN ? 1 : 0);
+                int col = blankAt % width + (dir == Board.LEFT ? -1 : dir == Board.RIGHT ? 1 : 0);
+
+                if (row < 0 || row >= height || col < 0 || col >= width) {
+                    continue;
+                }
+                int next = row * width + col;
+                int child = ((firstAt == next ? blankAt : firstAt) * cells
+                    + (lastAt == next ? blankAt : lastAt)) * cells
+                    + next;
+
+                if (parent[child] == -1) {
+                    parent[child] = state;
+                    moves[child] = dir;
+                    pending[tail++] = child;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not place the last two tiles of a line");
+    }
+
+    // the index of board `cell` within the window of `width` columns at (`top`, `left`)
+    //
+    private int local(int cell, int top, int left, int width) {
+        return (cell / cols - top) * width + (cell % cols - left);
+    }
+
+    // moves the tile belonging at (`i`, `j`) there and locks it
+    //
+    private void place(int i, int j) {
+        int cell = i * cols + j;
+
+        moveTile(board.goalTile(cell), cell);
+        locked[cell] = true;
+    }
+
+    // rotates the blank clockwise around the final 2x2 region at (`top`, `left`) until it is solved
+    //
+    // the 12 arrangements of a solvable 2x2 form a single cycle under rotation,
+    // so at most 12 moves are needed once the blank is in the region
+    //
+    private void solveCorner(int top, int left) {
+        int[] clockwise = { Board.RIGHT, Board.DOWN, Board.LEFT, Board.UP };
+        int corner = top * cols + left;
+        int blank = board.getBlank();
+        // the step of the cycle that moves the blank out of its current cell of the 2x2
+        int step = blank == corner ? 0
+            : blank == corner + 1 ? 1
+            : blank == corner + cols + 1 ? 2
+            : 3;
+
+        for (int i = 0; i < 12 && !board.isSolved(); i++, step++) {
+            emit(clockwise[step % 4]);
+        }
+    }
+
+    // walks `tile` to `target` one cell at a time,
+    // along a shortest path through the unlocked cells
+    //
+    private void moveTile(int tile, int target) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+        int length = search(board.indexOf(tile), target, -1, route);
+
+        // `search` fills in the route from the target back to the tile
+        // so the steps are taken in reverse
+        for (int k = length - 1; k >= 0; k--) {
+            int from = board.indexOf(tile);
+            int to = board.neighbor(from, route[k]);
+
+            // brings the blank next to the tile without moving the tile, then swaps them
+            moveBlank(to, from);
+            emit(route[k] ^ 1);
+        }
+    }
+
+    // moves the blank to `target` through the unlocked cells
+    //
+    private void moveBlank(int target) {
+        moveBlank(target, -1);
+    }
+
+    // moves the blank to `target` through the unlocked cells, never passing through `avoid`
+    //
+    private void moveBlank(int target, int avoid) {
+        int length = search(board.getBlank(), target, avoid, path);
+
+        for (int k = length - 1; k >= 0; k--) {
+            emit(path[k]);
+        }
+    }
+
+    // breadth-first search from `start` to `target` over the unlocked cells other than `avoid`
+    //
+    // fills `out` with the directions of the shortest path, *last step first*, and returns its length
+    //
+    private int search(int start, int target, int avoid, int[] out) {
+        if (start == target) {
+            return 0;
+        }
+        generation++;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start;
+        visited[start] = generation;
+
+        while (head < tail) {
+            int cell = queue[head++];
+
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                int next = board.neighbor(cell, dir);
+
+                if (next == -1 || next == avoid || locked[next] || visited[next] == generation) {
+                    continue;
+                }
+                visited[next] = generation;
+                via[next] = dir;
+
+                if (next == target) {
+                    int length = 0;
+
+                    for (int at = target; at != start; at = board.neighbor(at, via[at] ^ 1)) {
+                        out[length++] = via[at];
+                    }
+                    return length;
+                }
+                queue[tail++] = next;
+            }
+        }
+        throw new IllegalStateException(String.format(
+            "No path from cell %d to cell %d on the %dx%d board", start, target, rows, cols
+        ));
+    }
+
+    // applies a move to the working board and emits it
+    //
+    private void emit(int dir) {
+        board.move(dir);
+        sink.accept(dir);
+    }
+}
@@ -0,0 +1,12 @@
+// A strategy for finding a sequence of moves that solves a `Board`
+//
+public interface Solver {
+    // returns the directions (see `Board.UP` etc.) the blank has to move in to solve `board`,
+    // or `null` if the board is not solvable
+    //
+    // `board` itself is left untouched
+    //
+    // long searches give up with a `CancellationException` once the calling thread is interrupted
+    //
+    int[] solve(Board board);
+}
@@ -0,0 +1,42 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executors running every task on a thread of its own, shared by the background work and the game server
+//
+// tasks get a virtual thread when the runtime has them (Java 21+), looked up reflectively to keep
+// running on Java 17, where they get a daemon platform thread from a cached pool instead.
+//
+public class Threads {
+    private Threads() {}
+
+    // an executor of a thread per task, the fallback threads being named `<name>-1`, `<name>-2`...
+    // and reserving `stackSize` bytes of stack (`0` for the JVM's default)
+    //
+    public static ExecutorService newPerTaskExecutor(String name, long stackSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException err) {
+            AtomicInteger threads = new AtomicInteger();
+
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, name + "-" + threads.incrementAndGet(), stackSize);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // whether `newPerTaskExecutor` runs tasks on virtual threads
+    //
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException err) {
+            return false;
+        }
+    }
+}
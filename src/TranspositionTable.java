@@ -0,0 +1,136 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size, lock-free table of values keyed by the Zobrist hash of a layout (see `Board.getHash`)
+//
+// the table is a power of two number of buckets of two entries, each entry being a pair of longs:
+// the data (value, depth and generation packed together) and the hash xor-ed with that data.
+// a reader only trusts an entry whose two halves xor back to its hash, so an entry torn by
+// concurrent writers reads as missing rather than as another layout's data, and no locks are needed.
+//
+// entries are replaced rather than chained, so the table is lossy: a layout put in may be missing later.
+// the first entry of a bucket keeps the deepest search (`depth`) of the current generation,
+// the second is always overwritten by whatever the first declines.
+// `newGeneration` ages out every entry in O(1), e.g. between the iterations of an IDA* search.
+//
+public class TranspositionTable {
+    // returned by `get` for layouts that aren't in the table
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    // longs per entry and per bucket
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    // the generation (16 bits) and depth (16 bits) are packed above the value (32 bits)
+    private static final int DEPTH_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 48;
+    private static final int MAX_DEPTH = 0xFFFF;
+    private static final int MAX_GENERATION = 0xFFFF;
+
+    private final AtomicLongArray entries;
+    private final int mask;
+    // the generation of the entries being put, older ones being treated as missing
+    private volatile int generation = 1;
+
+    // a table of at least `capacity` entries (rounded up to a power of two), taking 16 bytes per entry
+    //
+    public TranspositionTable(int capacity) {
+        int buckets = Integer.highestOneBit(Math.max(1, capacity / 2 - 1)) << 1;
+
+        entries = new AtomicLongArray(buckets * BUCKET_LONGS);
+        mask = buckets - 1;
+    }
+
+    // number of entries
+    //
+    public int capacity() {
+        return entries.length() / ENTRY_LONGS;
+    }
+
+    public long memoryUsage() {
+        return (long) entries.length() * Long.BYTES;
+    }
+
+    // the value put for `hash` in the current generation, or `MISSING`
+    //
+    public int get(long hash) {
+        int bucket = bucketOf(hash);
+
+        for (int entry = bucket; entry < bucket + BUCKET_LONGS; entry += ENTRY_LONGS) {
+            long data = entries.getOpaque(entry);
+
+            if ((entries.getOpaque(entry + 1) ^ data) == hash && generationOf(data) == generation) {
+                return (int) data;
+            }
+        }
+        return MISSING;
+    }
+
+    // stores `value` for `hash`, where `depth` is how much work the value saves (e.g. the depth left to search)
+    //
+    // an entry already holding `hash` is updated in place, otherwise the first entry is taken when it is
+    // from an older generation or its depth is below `depth`, and the second entry when it isn't
+    //
+    public void put(long hash, int value, int depth) {
+        int bucket = bucketOf(hash);
+        long data = (long) generation << GENERATION_SHIFT
+            | (long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT
+            | (value & 0xFFFFFFFFL);
+
+        long first = entries.getOpaque(bucket);
+        int entry = bucket + ENTRY_LONGS;
+
+        if ((entries.getOpaque(bucket + 1) ^ first) == hash
+            || generationOf(first) != generation
+            || depthOf(first) < depth) {
+            entry = bucket;
+        }
+        entries.setOpaque(entry, data);
+        entries.setOpaque(entry + 1, hash ^ data);
+    }
+
+    // stores `hash` unless it is already there, returning whether it was added
+    //
+    // meant for deduplicating layouts across threads: two threads adding the same layout at once
+    // may both see it as new, and a layout whose entry was since replaced is seen as new again
+    //
+    public boolean add(long hash) {
+        if (get(hash) != MISSING) {
+            return false;
+        }
+        put(hash, 0, 0);
+        return true;
+    }
+
+    // makes every entry put so far missing
+    //
+    // generations wrap around after 65535 calls, when the table is cleared instead
+    //
+    public synchronized void newGeneration() {
+        if (generation == MAX_GENERATION) {
+            clear();
+            return;
+        }
+        generation++;
+    }
+
+    // removes every entry
+    //
+    public synchronized void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.setOpaque(i, 0);
+        }
+        generation = 1;
+    }
+
+    private int bucketOf(long hash) {
+        // every bit of a Zobrist hash is equally well mixed, so any of them make a uniform index
+        return ((int) (hash ^ hash >>> 32) & mask) * BUCKET_LONGS;
+    }
+
+    private static int generationOf(long data) {
+        return (int) (data >>> GENERATION_SHIFT);
+    }
+
+    private static int depthOf(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+}